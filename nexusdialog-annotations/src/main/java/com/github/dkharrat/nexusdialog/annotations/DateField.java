@@ -0,0 +1,41 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a date picker field (a <code>DatePickerController</code>) in a {@link FormDefinition}.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface DateField {
+    /**
+     * The name of the field. Defaults to the name of the annotated field.
+     */
+    String name() default "";
+
+    /**
+     * The label to display beside the field. Defaults to no label.
+     */
+    String label() default "";
+
+    /**
+     * Indicates whether the field is required.
+     */
+    boolean required() default false;
+
+    /**
+     * Additional validators of the field. Each class must implement <code>InputValidator</code> and have a public no-arg
+     * constructor.
+     */
+    Class<?>[] validators() default {};
+
+    /**
+     * The <code>SimpleDateFormat</code> pattern used to display the selected date.
+     */
+    String format() default "MMM d, yyyy";
+}
@@ -0,0 +1,34 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a <code>FormModel</code> that reads and writes the fields of the annotated class that are annotated with
+ * {@link FormField}. The generated model is named after the class with a <code>FormModel</code> suffix (e.g.
+ * <code>PersonFormModel</code> for <code>Person</code>), is placed in the same package, and wraps an instance of the
+ * class:
+ * <pre>
+ *     &#64;FormBinding
+ *     public class Person {
+ *         &#64;FormField String firstName;
+ *         &#64;FormField("birth_date") Date birthDate;
+ *     }
+ *
+ *     controller.setModel(new PersonFormModel(person));
+ * </pre>
+ * Fields are accessed directly if they are not private, or otherwise through their JavaBean getter and setter. The
+ * generated code does not use reflection, so the binding keeps working when the class is obfuscated.
+ * <p/>
+ * Numeric fields also accept text, such as the value of a text field: it is parsed, empty text clears the field (or
+ * sets it to 0 if it is primitive), and text that isn't a number leaves the field unchanged. Names of the form that
+ * aren't bound to a field are ignored.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface FormBinding {
+}
@@ -0,0 +1,32 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a form whose elements are defined by the annotated fields of the class, in the order they are declared. An
+ * annotation processor generates a class named after the annotated class with a <code>Definition</code> suffix, whose
+ * <code>initForm</code> method creates the form's sections and elements:
+ * <pre>
+ *     &#64;FormDefinition
+ *     class RegistrationForm {
+ *         &#64;Section(title = "Personal Info")
+ *         &#64;TextField(label = "First name", required = true) String firstName;
+ *         &#64;TextField(label = "Last name") String lastName;
+ *
+ *         &#64;Section(title = "Account")
+ *         &#64;SelectionField(label = "Plan", items = {"Free", "Premium"}) String plan;
+ *     }
+ *
+ *     RegistrationFormDefinition.initForm(context, controller);
+ * </pre>
+ * Misconfigurations, such as duplicate field names or invalid date formats, are reported as compilation errors.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface FormDefinition {
+}
@@ -0,0 +1,20 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a field of a class annotated with {@link FormBinding} to a form field.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface FormField {
+    /**
+     * The name of the form field. Defaults to the name of the annotated field.
+     */
+    String value() default "";
+}
@@ -0,0 +1,26 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Starts a new section of a {@link FormDefinition} with the element of the annotated field. Elements declared before the
+ * first section are placed in a section without a title.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Section {
+    /**
+     * The name of the section. Defaults to a generated name.
+     */
+    String name() default "";
+
+    /**
+     * The title of the section. Defaults to no title.
+     */
+    String title() default "";
+}
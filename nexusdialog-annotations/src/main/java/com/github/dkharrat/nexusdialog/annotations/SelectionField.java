@@ -0,0 +1,51 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a selection field (a <code>SelectionController</code>) in a {@link FormDefinition}.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface SelectionField {
+    /**
+     * The name of the field. Defaults to the name of the annotated field.
+     */
+    String name() default "";
+
+    /**
+     * The label to display beside the field. Defaults to no label.
+     */
+    String label() default "";
+
+    /**
+     * Indicates whether the field is required.
+     */
+    boolean required() default false;
+
+    /**
+     * Additional validators of the field. Each class must implement <code>InputValidator</code> and have a public no-arg
+     * constructor.
+     */
+    Class<?>[] validators() default {};
+
+    /**
+     * The text to display when nothing is selected.
+     */
+    String prompt() default "";
+
+    /**
+     * The items to select from.
+     */
+    String[] items();
+
+    /**
+     * Indicates whether the model stores the selected item itself, rather than its index.
+     */
+    boolean useItemsAsValues() default true;
+}
@@ -0,0 +1,47 @@
+package com.github.dkharrat.nexusdialog.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a text field (an <code>EditTextController</code>) in a {@link FormDefinition}.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface TextField {
+    /**
+     * The name of the field. Defaults to the name of the annotated field.
+     */
+    String name() default "";
+
+    /**
+     * The label to display beside the field. Defaults to no label.
+     */
+    String label() default "";
+
+    /**
+     * Indicates whether the field is required.
+     */
+    boolean required() default false;
+
+    /**
+     * Additional validators of the field. Each class must implement <code>InputValidator</code> and have a public no-arg
+     * constructor.
+     */
+    Class<?>[] validators() default {};
+
+    /**
+     * A placeholder text to show when the field is empty. Defaults to no placeholder.
+     */
+    String placeholder() default "";
+
+    /**
+     * The content type of the text box, as defined by <code>android.text.InputType</code>. Defaults to
+     * <code>InputType.TYPE_CLASS_TEXT</code>.
+     */
+    int inputType() default 1;
+}
@@ -0,0 +1,371 @@
+package com.github.dkharrat.nexusdialog.compiler;
+
+import com.github.dkharrat.nexusdialog.annotations.CheckBoxField;
+import com.github.dkharrat.nexusdialog.annotations.DateField;
+import com.github.dkharrat.nexusdialog.annotations.FormDefinition;
+import com.github.dkharrat.nexusdialog.annotations.Section;
+import com.github.dkharrat.nexusdialog.annotations.SelectionField;
+import com.github.dkharrat.nexusdialog.annotations.TextField;
+import com.github.dkharrat.nexusdialog.annotations.TimeField;
+import com.github.dkharrat.nexusdialog.annotations.ValueField;
+
+import java.lang.annotation.Annotation;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the code that creates the sections and elements of each form declared with {@link FormDefinition}. All the
+ * checks that the form controllers would otherwise only perform at runtime, such as the uniqueness of element names, are
+ * performed at compile time.
+ */
+public class FormDefinitionProcessor extends AbstractProcessor {
+    private static final String SUFFIX = "Definition";
+    private static final String INPUT_VALIDATOR_CLASS = "com.github.dkharrat.nexusdialog.validations.InputValidator";
+
+    private static final List<Class<? extends Annotation>> ELEMENT_ANNOTATIONS = Collections.unmodifiableList(Arrays.asList(
+            TextField.class, SelectionField.class, CheckBoxField.class, DateField.class, TimeField.class, ValueField.class));
+
+    private static class SectionSpec {
+        final String name;
+        final String title;
+        final List<String> elementExpressions = new ArrayList<String>();
+
+        SectionSpec(String name, String title) {
+            this.name = name;
+            this.title = title;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<String>();
+        types.add(FormDefinition.class.getCanonicalName());
+        types.add(Section.class.getCanonicalName());
+        for (Class<? extends Annotation> annotation : ELEMENT_ANNOTATIONS) {
+            types.add(annotation.getCanonicalName());
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        List<Class<? extends Annotation>> fieldAnnotations = new ArrayList<Class<? extends Annotation>>(ELEMENT_ANNOTATIONS);
+        fieldAnnotations.add(Section.class);
+        for (Class<? extends Annotation> annotation : fieldAnnotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getEnclosingElement().getAnnotation(FormDefinition.class) == null) {
+                    error(element, "@" + annotation.getSimpleName() + " can only be used in classes annotated with @FormDefinition");
+                }
+            }
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(FormDefinition.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@FormDefinition can only be applied to classes");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            List<SectionSpec> sections = collectSections(type);
+            if (sections != null) {
+                writeDefinition(type, sections);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sections declared by the fields of the specified class, or null if the declaration is invalid.
+     */
+    private List<SectionSpec> collectSections(TypeElement type) {
+        List<SectionSpec> sections = new ArrayList<SectionSpec>();
+        Set<String> elementNames = new HashSet<String>();
+        Set<String> sectionNames = new HashSet<String>();
+        boolean valid = true;
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            List<Annotation> elementAnnotations = new ArrayList<Annotation>();
+            for (Class<? extends Annotation> annotationClass : ELEMENT_ANNOTATIONS) {
+                Annotation annotation = field.getAnnotation(annotationClass);
+                if (annotation != null) {
+                    elementAnnotations.add(annotation);
+                }
+            }
+
+            Section section = field.getAnnotation(Section.class);
+            if (elementAnnotations.isEmpty()) {
+                if (section != null) {
+                    error(field, "@Section must be applied to a field that declares an element");
+                    valid = false;
+                }
+                continue;
+            } else if (elementAnnotations.size() > 1) {
+                error(field, "A field can only declare a single element");
+                valid = false;
+                continue;
+            }
+
+            if (section != null) {
+                String sectionName = emptyToNull(section.name());
+                if (sectionName != null && (!sectionNames.add(sectionName) || elementNames.contains(sectionName))) {
+                    error(field, "Duplicate section name '" + sectionName + "'");
+                    valid = false;
+                }
+                sections.add(new SectionSpec(sectionName, emptyToNull(section.title())));
+            } else if (sections.isEmpty()) {
+                // elements declared before the first section are placed in an untitled section
+                sections.add(new SectionSpec(null, null));
+            }
+
+            Annotation annotation = elementAnnotations.get(0);
+            String name = emptyToNull(getName(annotation));
+            if (name == null) {
+                name = field.getSimpleName().toString();
+            }
+            if (!elementNames.add(name) || sectionNames.contains(name)) {
+                error(field, "Duplicate element name '" + name + "'. Element names must be unique within a form.");
+                valid = false;
+                continue;
+            }
+
+            String expression = elementExpression(field, name, annotation);
+            if (expression == null) {
+                valid = false;
+            } else {
+                sections.get(sections.size() - 1).elementExpressions.add(expression);
+            }
+        }
+        return valid ? sections : null;
+    }
+
+    private static String getName(Annotation annotation) {
+        if (annotation instanceof TextField) {
+            return ((TextField) annotation).name();
+        } else if (annotation instanceof SelectionField) {
+            return ((SelectionField) annotation).name();
+        } else if (annotation instanceof CheckBoxField) {
+            return ((CheckBoxField) annotation).name();
+        } else if (annotation instanceof DateField) {
+            return ((DateField) annotation).name();
+        } else if (annotation instanceof TimeField) {
+            return ((TimeField) annotation).name();
+        }
+        return ((ValueField) annotation).name();
+    }
+
+    /**
+     * Returns the expression that creates the controller of an element, or null if the element is invalid.
+     */
+    private String elementExpression(VariableElement field, String name, Annotation annotation) {
+        String nameLiteral = SourceFiles.stringLiteral(name);
+        if (annotation instanceof TextField) {
+            TextField textField = (TextField) annotation;
+            String validators = validatorsExpression(field, textField.required(), getValidatorTypes(textField));
+            return validators == null ? null : "new EditTextController(context, " + nameLiteral + ", "
+                    + label(textField.label()) + ", " + SourceFiles.stringLiteral(emptyToNull(textField.placeholder())) + ", "
+                    + validators + ", " + textField.inputType() + ")";
+        } else if (annotation instanceof SelectionField) {
+            SelectionField selection = (SelectionField) annotation;
+            String validators = validatorsExpression(field, selection.required(), getValidatorTypes(selection));
+            String items = itemsExpression(field, selection.items());
+            return validators == null || items == null ? null : "new SelectionController(context, " + nameLiteral + ", "
+                    + label(selection.label()) + ", " + validators + ", " + SourceFiles.stringLiteral(selection.prompt())
+                    + ", " + items + ", " + selection.useItemsAsValues() + ")";
+        } else if (annotation instanceof CheckBoxField) {
+            CheckBoxField checkBoxes = (CheckBoxField) annotation;
+            String validators = validatorsExpression(field, checkBoxes.required(), getValidatorTypes(checkBoxes));
+            String items = itemsExpression(field, checkBoxes.items());
+            return validators == null || items == null ? null : "new CheckBoxController(context, " + nameLiteral + ", "
+                    + label(checkBoxes.label()) + ", " + validators + ", " + items + ", " + checkBoxes.useItemsAsValues() + ")";
+        } else if (annotation instanceof DateField) {
+            DateField date = (DateField) annotation;
+            String validators = validatorsExpression(field, date.required(), getValidatorTypes(date));
+            String format = dateFormatExpression(field, date.format());
+            return validators == null || format == null ? null : "new DatePickerController(context, " + nameLiteral + ", "
+                    + label(date.label()) + ", " + validators + ", " + format + ")";
+        } else if (annotation instanceof TimeField) {
+            TimeField time = (TimeField) annotation;
+            String validators = validatorsExpression(field, time.required(), getValidatorTypes(time));
+            String format = dateFormatExpression(field, time.format());
+            return validators == null || format == null ? null : "new TimePickerController(context, " + nameLiteral + ", "
+                    + label(time.label()) + ", " + validators + ", " + format + ", " + time.is24HourView() + ")";
+        }
+        ValueField value = (ValueField) annotation;
+        return "new ValueController(context, " + nameLiteral + ", " + label(value.label()) + ")";
+    }
+
+    /**
+     * Returns the types of the validators of an element. Accessing a {@code Class} value of an annotation at compile time
+     * throws an exception that contains the types instead.
+     */
+    private static List<? extends TypeMirror> getValidatorTypes(Annotation annotation) {
+        try {
+            if (annotation instanceof TextField) {
+                ((TextField) annotation).validators();
+            } else if (annotation instanceof SelectionField) {
+                ((SelectionField) annotation).validators();
+            } else if (annotation instanceof CheckBoxField) {
+                ((CheckBoxField) annotation).validators();
+            } else if (annotation instanceof DateField) {
+                ((DateField) annotation).validators();
+            } else if (annotation instanceof TimeField) {
+                ((TimeField) annotation).validators();
+            }
+        } catch (MirroredTypesException e) {
+            return e.getTypeMirrors();
+        }
+        return Collections.emptyList();
+    }
+
+    private String validatorsExpression(VariableElement field, boolean required, List<? extends TypeMirror> validatorTypes) {
+        TypeElement inputValidator = processingEnv.getElementUtils().getTypeElement(INPUT_VALIDATOR_CLASS);
+        StringBuilder expression = new StringBuilder("validators(").append(required);
+        for (TypeMirror validatorType : validatorTypes) {
+            Element validator = validatorType instanceof DeclaredType ? ((DeclaredType) validatorType).asElement() : null;
+            if (validator == null || validator.getKind() != ElementKind.CLASS
+                    || validator.getModifiers().contains(Modifier.ABSTRACT) || !hasPublicNoArgConstructor(validator)) {
+                error(field, "Validator " + validatorType + " must be a concrete class with a public no-arg constructor");
+                return null;
+            }
+            if (inputValidator != null && !processingEnv.getTypeUtils().isAssignable(validatorType, inputValidator.asType())) {
+                error(field, "Validator " + validatorType + " must implement InputValidator");
+                return null;
+            }
+            expression.append(", new ").append(processingEnv.getTypeUtils().erasure(validatorType)).append("()");
+        }
+        return expression.append(")").toString();
+    }
+
+    private static boolean hasPublicNoArgConstructor(Element type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String itemsExpression(VariableElement field, String[] items) {
+        if (items.length == 0) {
+            error(field, "At least one item must be specified");
+            return null;
+        }
+
+        StringBuilder expression = new StringBuilder("Arrays.asList(");
+        for (int i = 0; i < items.length; i++) {
+            if (i > 0) {
+                expression.append(", ");
+            }
+            expression.append(SourceFiles.stringLiteral(items[i]));
+        }
+        return expression.append(")").toString();
+    }
+
+    private String dateFormatExpression(VariableElement field, String pattern) {
+        try {
+            new SimpleDateFormat(pattern);
+        } catch (IllegalArgumentException e) {
+            error(field, "Invalid date format '" + pattern + "': " + e.getMessage());
+            return null;
+        }
+        return "new SimpleDateFormat(" + SourceFiles.stringLiteral(pattern) + ", Locale.getDefault())";
+    }
+
+    private static String label(String label) {
+        return SourceFiles.stringLiteral(emptyToNull(label));
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private void writeDefinition(TypeElement type, List<SectionSpec> sections) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String definitionName = SourceFiles.generatedSimpleName(type, SUFFIX);
+
+        StringBuilder source = new StringBuilder();
+        source.append("// Generated by the NexusDialog compiler from ").append(type.getQualifiedName()).append(". Do not modify.\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import android.content.Context;\n\n");
+        source.append("import com.github.dkharrat.nexusdialog.FormController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.DatePickerController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.EditTextController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.FormSectionController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.SelectionController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.TimePickerController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.controllers.ValueController;\n");
+        source.append("import com.github.dkharrat.nexusdialog.validations.InputValidator;\n");
+        source.append("import com.github.dkharrat.nexusdialog.validations.RequiredFieldValidator;\n\n");
+        source.append("import java.text.SimpleDateFormat;\n");
+        source.append("import java.util.Arrays;\n");
+        source.append("import java.util.HashSet;\n");
+        source.append("import java.util.Locale;\n");
+        source.append("import java.util.Set;\n\n");
+
+        source.append("public final class ").append(definitionName).append(" {\n");
+        source.append("    private ").append(definitionName).append("() {\n");
+        source.append("    }\n\n");
+
+        source.append("    public static void initForm(Context context, FormController controller) {\n");
+        source.append("        FormSectionController section;\n");
+        for (SectionSpec section : sections) {
+            source.append("\n        section = new FormSectionController(context");
+            if (section.name != null) {
+                source.append(", ").append(SourceFiles.stringLiteral(section.name));
+            }
+            if (section.name != null || section.title != null) {
+                source.append(", ").append(SourceFiles.stringLiteral(section.title));
+            }
+            source.append(");\n");
+            for (String elementExpression : section.elementExpressions) {
+                source.append("        section.addElement(").append(elementExpression).append(");\n");
+            }
+            source.append("        controller.addSection(section);\n");
+        }
+        source.append("    }\n\n");
+
+        source.append("    private static Set<InputValidator> validators(boolean required, InputValidator... validators) {\n");
+        source.append("        Set<InputValidator> set = new HashSet<InputValidator>(Arrays.asList(validators));\n");
+        source.append("        if (required) {\n");
+        source.append("            set.add(new RequiredFieldValidator());\n");
+        source.append("        }\n");
+        source.append("        return set;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        SourceFiles.write(processingEnv, type, packageName, definitionName, source);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,318 @@
+package com.github.dkharrat.nexusdialog.compiler;
+
+import com.github.dkharrat.nexusdialog.annotations.FormBinding;
+import com.github.dkharrat.nexusdialog.annotations.FormField;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a <code>FormModel</code> for each class annotated with {@link FormBinding}. The generated model maps each
+ * field name to the annotated field with a <code>switch</code> statement, so values are read and written without
+ * reflection. Names that aren't bound to a field are ignored: their value is always <code>null</code>, and setting it
+ * has no effect.
+ */
+public class FormModelProcessor extends AbstractProcessor {
+    private static final String FORM_MODEL_CLASS = "com.github.dkharrat.nexusdialog.FormModel";
+    private static final String SUFFIX = "FormModel";
+
+    /**
+     * How a bound field is read and written in the generated code.
+     */
+    private static class Binding {
+        final String fieldName;
+        final String getExpression;
+        final String setStatement;
+        final boolean isNumber;     // whether the value is converted with toNumber() before being set
+
+        Binding(String fieldName, String getExpression, String setStatement, boolean isNumber) {
+            this.fieldName = fieldName;
+            this.getExpression = getExpression;
+            this.setStatement = setStatement;
+            this.isNumber = isNumber;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<String>();
+        types.add(FormBinding.class.getCanonicalName());
+        types.add(FormField.class.getCanonicalName());
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(FormField.class)) {
+            if (element.getEnclosingElement().getAnnotation(FormBinding.class) == null) {
+                error(element, "@FormField can only be used in classes annotated with @FormBinding");
+            }
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(FormBinding.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@FormBinding can only be applied to classes");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            if (isValidBindingClass(type)) {
+                List<Binding> bindings = collectBindings(type);
+                if (bindings != null) {
+                    writeModel(type, bindings);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isValidBindingClass(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "Classes annotated with @FormBinding must not be private");
+            return false;
+        }
+        if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+            error(type, "Nested classes annotated with @FormBinding must be static");
+            return false;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "Classes annotated with @FormBinding must not be generic");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns how each annotated field of the specified class is accessed, or null if any field can't be bound.
+     */
+    private List<Binding> collectBindings(TypeElement type) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+        List<Binding> bindings = new ArrayList<Binding>();
+        Set<String> names = new HashSet<String>();
+        boolean valid = true;
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            FormField annotation = field.getAnnotation(FormField.class);
+            if (annotation == null) {
+                continue;
+            }
+
+            String javaName = field.getSimpleName().toString();
+            String name = annotation.value().isEmpty() ? javaName : annotation.value();
+            if (!names.add(name)) {
+                error(field, "Duplicate form field name '" + name + "'");
+                valid = false;
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                error(field, "@FormField can't be applied to static fields");
+                valid = false;
+                continue;
+            }
+
+            Set<Modifier> modifiers = field.getModifiers();
+            TypeMirror fieldType = field.asType();
+            boolean isBoolean = fieldType.getKind() == TypeKind.BOOLEAN;
+            String property = Character.toUpperCase(javaName.charAt(0)) + javaName.substring(1);
+            ExecutableElement getter = findMethod(methods, (isBoolean ? "is" : "get") + property, 0);
+            if (getter == null && isBoolean) {
+                getter = findMethod(methods, "get" + property, 0);
+            }
+            ExecutableElement setter = findMethod(methods, "set" + property, 1);
+
+            String getExpression;
+            if (!modifiers.contains(Modifier.PRIVATE)) {
+                getExpression = "target." + javaName;
+            } else if (getter != null) {
+                getExpression = "target." + getter.getSimpleName() + "()";
+            } else {
+                error(field, "Private field '" + javaName + "' has no getter");
+                valid = false;
+                continue;
+            }
+
+            // formatted with the expression of the converted value below
+            String setStatementFormat;
+            if (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.FINAL)) {
+                setStatementFormat = "target." + javaName + " = %s;";
+            } else if (setter != null) {
+                setStatementFormat = "target." + setter.getSimpleName() + "(%s);";
+            } else {
+                error(field, "Field '" + javaName + "' is private or final, and has no setter");
+                valid = false;
+                continue;
+            }
+
+            String numberConversion = convertNumber(fieldType);
+            if (numberConversion != null) {
+                bindings.add(new Binding(name, getExpression, String.format(setStatementFormat, numberConversion), true));
+            } else {
+                bindings.add(new Binding(name, getExpression, String.format(setStatementFormat, convertValue(fieldType)), false));
+            }
+        }
+        return valid ? bindings : null;
+    }
+
+    private static ExecutableElement findMethod(List<ExecutableElement> methods, String name, int parameterCount) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameterCount
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an expression that converts the <code>number</code> variable, holding the result of
+     * <code>toNumber(value)</code>, to the specified type, or null if the type isn't numeric. Numbers are converted
+     * between numeric types, since models may store e.g. an {@code Integer} for a {@code long} field, or the text of an
+     * <code>EditTextController</code>. {@code null} is converted to the default value of primitive types.
+     */
+    private static String convertNumber(TypeMirror type) {
+        switch (type.getKind()) {
+            case BYTE:      return "number != null ? number.byteValue() : 0";
+            case SHORT:     return "number != null ? number.shortValue() : 0";
+            case INT:       return "number != null ? number.intValue() : 0";
+            case LONG:      return "number != null ? number.longValue() : 0L";
+            case FLOAT:     return "number != null ? number.floatValue() : 0f";
+            case DOUBLE:    return "number != null ? number.doubleValue() : 0d";
+            default:
+                break;
+        }
+
+        String typeName = type.toString();
+        if (typeName.equals("java.lang.Byte")) {
+            return "number != null ? Byte.valueOf(number.byteValue()) : null";
+        } else if (typeName.equals("java.lang.Short")) {
+            return "number != null ? Short.valueOf(number.shortValue()) : null";
+        } else if (typeName.equals("java.lang.Integer")) {
+            return "number != null ? Integer.valueOf(number.intValue()) : null";
+        } else if (typeName.equals("java.lang.Long")) {
+            return "number != null ? Long.valueOf(number.longValue()) : null";
+        } else if (typeName.equals("java.lang.Float")) {
+            return "number != null ? Float.valueOf(number.floatValue()) : null";
+        } else if (typeName.equals("java.lang.Double")) {
+            return "number != null ? Double.valueOf(number.doubleValue()) : null";
+        }
+        return null;
+    }
+
+    /**
+     * Returns an expression that converts the <code>value</code> variable to the specified non-numeric type.
+     * {@code null} is converted to the default value of primitive types.
+     */
+    private static String convertValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:   return "value != null && (Boolean) value";
+            case CHAR:      return "value != null ? (Character) value : '\\0'";
+            default:        return "(" + type + ") value";
+        }
+    }
+
+    private void writeModel(TypeElement type, List<Binding> bindings) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String modelName = SourceFiles.generatedSimpleName(type, SUFFIX);
+        String targetName = type.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        source.append("// Generated by the NexusDialog compiler from ").append(targetName).append(". Do not modify.\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("public final class ").append(modelName).append(" extends ").append(FORM_MODEL_CLASS).append(" {\n");
+        source.append("    private final ").append(targetName).append(" target;\n\n");
+        source.append("    public ").append(modelName).append("(").append(targetName).append(" target) {\n");
+        source.append("        this.target = target;\n");
+        source.append("    }\n\n");
+        source.append("    public ").append(targetName).append(" getTarget() {\n");
+        source.append("        return target;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    protected Object getBackingValue(String name) {\n");
+        source.append("        switch (name) {\n");
+        for (Binding binding : bindings) {
+            source.append("            case ").append(SourceFiles.stringLiteral(binding.fieldName)).append(":\n");
+            source.append("                return ").append(binding.getExpression).append(";\n");
+        }
+        source.append("            default:\n");
+        source.append("                return null;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+
+        boolean hasNumbers = false;
+        source.append("    @Override\n");
+        source.append("    @SuppressWarnings(\"unchecked\")\n");
+        source.append("    protected void setBackingValue(String name, Object value) {\n");
+        source.append("        switch (name) {\n");
+        for (Binding binding : bindings) {
+            source.append("            case ").append(SourceFiles.stringLiteral(binding.fieldName)).append(":\n");
+            if (binding.isNumber) {
+                hasNumbers = true;
+                source.append("                try {\n");
+                source.append("                    Number number = toNumber(value);\n");
+                source.append("                    ").append(binding.setStatement).append("\n");
+                source.append("                } catch (NumberFormatException e) {\n");
+                source.append("                    // text that isn't a number, e.g. while it's being typed, leaves the field unchanged\n");
+                source.append("                }\n");
+            } else {
+                source.append("                ").append(binding.setStatement).append("\n");
+            }
+            source.append("                break;\n");
+        }
+        source.append("            default:\n");
+        source.append("                // not bound to a field, like in getBackingValue\n");
+        source.append("                break;\n");
+        source.append("        }\n");
+        source.append("    }\n");
+
+        if (hasNumbers) {
+            source.append("\n");
+            source.append("    private static Number toNumber(Object value) {\n");
+            source.append("        if (!(value instanceof CharSequence)) {\n");
+            source.append("            return (Number) value;\n");
+            source.append("        }\n");
+            source.append("        String text = value.toString().trim();\n");
+            source.append("        if (text.isEmpty()) {\n");
+            source.append("            return null;\n");
+            source.append("        }\n");
+            source.append("        try {\n");
+            source.append("            return Long.valueOf(text);\n");
+            source.append("        } catch (NumberFormatException e) {\n");
+            source.append("            return Double.valueOf(text);\n");
+            source.append("        }\n");
+            source.append("    }\n");
+        }
+        source.append("}\n");
+
+        SourceFiles.write(processingEnv, type, packageName, modelName, source);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.dkharrat.nexusdialog.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Helpers to generate Java source files from annotation processors.
+ */
+final class SourceFiles {
+    private SourceFiles() {
+    }
+
+    /**
+     * Returns the simple name of a class generated for the specified class. Nested classes are prefixed with the names of
+     * their enclosing classes (e.g. <code>Outer_InnerFormModel</code>).
+     */
+    static String generatedSimpleName(TypeElement type, String suffix) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing != null && (enclosing.getKind().isClass() || enclosing.getKind().isInterface())) {
+            name = enclosing.getSimpleName() + "_" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name + suffix;
+    }
+
+    /**
+     * Returns a Java string literal for the specified value, or <code>null</code> if the value is null.
+     */
+    static String stringLiteral(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':   literal.append("\\\""); break;
+                case '\\':  literal.append("\\\\"); break;
+                case '\b':  literal.append("\\b"); break;
+                case '\t':  literal.append("\\t"); break;
+                case '\n':  literal.append("\\n"); break;
+                case '\f':  literal.append("\\f"); break;
+                case '\r':  literal.append("\\r"); break;
+                default:
+                    if (c < 0x20 || c == 0x7f) {
+                        // octal rather than unicode escapes, which are translated before the source is parsed
+                        literal.append(String.format("\\%03o", (int) c));
+                    } else if (c > 0x7f) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                    break;
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    /**
+     * Writes a generated source file. Failures are reported as compilation errors on the originating type.
+     */
+    static void write(ProcessingEnvironment processingEnv, TypeElement originatingType, String packageName,
+                      String simpleName, CharSequence source) {
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, originatingType);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + qualifiedName + ": " + e.getMessage(), originatingType);
+        }
+    }
+}
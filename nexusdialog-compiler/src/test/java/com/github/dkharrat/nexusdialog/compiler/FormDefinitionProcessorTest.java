@@ -0,0 +1,393 @@
+package com.github.dkharrat.nexusdialog.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+public class FormDefinitionProcessorTest extends ProcessorTestCase {
+    /**
+     * Stubs of the classes that generated definitions refer to, which record how they were created.
+     */
+    private static final List<JavaFileObject> STUBS = Arrays.asList(
+            source("android.content.Context",
+                    "package android.content;",
+                    "public class Context {}"),
+            source("com.github.dkharrat.nexusdialog.validations.InputValidator",
+                    "package com.github.dkharrat.nexusdialog.validations;",
+                    "public interface InputValidator {",
+                    "    Object validate(Object value, String fieldName, String fieldLabel);",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.validations.RequiredFieldValidator",
+                    "package com.github.dkharrat.nexusdialog.validations;",
+                    "public class RequiredFieldValidator implements InputValidator {",
+                    "    public Object validate(Object value, String fieldName, String fieldLabel) { return null; }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.FormElementController",
+                    "package com.github.dkharrat.nexusdialog;",
+                    "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+                    "import java.util.*;",
+                    "public class FormElementController {",
+                    "    private final String name;",
+                    "    private final String label;",
+                    "    private final Set<InputValidator> validators;",
+                    "    private final List<Object> arguments;",
+                    "    protected FormElementController(String name, String label, Set<InputValidator> validators,",
+                    "                                    Object... arguments) {",
+                    "        this.name = name;",
+                    "        this.label = label;",
+                    "        this.validators = validators;",
+                    "        this.arguments = Arrays.asList(arguments);",
+                    "    }",
+                    "    public String getName() { return name; }",
+                    "    public String getLabel() { return label; }",
+                    "    public Set<InputValidator> getValidators() { return validators; }",
+                    "    public List<Object> getArguments() { return arguments; }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.FormController",
+                    "package com.github.dkharrat.nexusdialog;",
+                    "import com.github.dkharrat.nexusdialog.controllers.FormSectionController;",
+                    "import java.util.*;",
+                    "public class FormController {",
+                    "    private final List<FormSectionController> sections = new ArrayList<FormSectionController>();",
+                    "    public void addSection(FormSectionController section) { sections.add(section); }",
+                    "    public List<FormSectionController> getSections() { return sections; }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.FormSectionController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "import java.util.*;",
+                    "public class FormSectionController extends FormElementController {",
+                    "    private final List<FormElementController> elements = new ArrayList<FormElementController>();",
+                    "    public FormSectionController(Context ctx, String name, String title) { super(name, title, null); }",
+                    "    public FormSectionController(Context ctx, String title) { super(null, title, null); }",
+                    "    public FormSectionController(Context ctx) { super(null, null, null); }",
+                    "    public void addElement(FormElementController element) { elements.add(element); }",
+                    "    public List<FormElementController> getElements() { return elements; }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.EditTextController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+                    "import java.util.*;",
+                    "public class EditTextController extends FormElementController {",
+                    "    public EditTextController(Context ctx, String name, String label, String placeholder,",
+                    "                              Set<InputValidator> validators, int inputType) {",
+                    "        super(name, label, validators, placeholder, inputType);",
+                    "    }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.SelectionController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+                    "import java.util.*;",
+                    "public class SelectionController extends FormElementController {",
+                    "    public SelectionController(Context ctx, String name, String label, Set<InputValidator> validators,",
+                    "                               String prompt, List<String> items, boolean useItemsAsValues) {",
+                    "        super(name, label, validators, prompt, items, useItemsAsValues);",
+                    "    }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.CheckBoxController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+                    "import java.util.*;",
+                    "public class CheckBoxController extends FormElementController {",
+                    "    public CheckBoxController(Context ctx, String name, String label, Set<InputValidator> validators,",
+                    "                              List<String> items, boolean useItemsAsValues) {",
+                    "        super(name, label, validators, items, useItemsAsValues);",
+                    "    }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.DatePickerController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+                    "import java.text.SimpleDateFormat;",
+                    "import java.util.*;",
+                    "public class DatePickerController extends FormElementController {",
+                    "    public DatePickerController(Context ctx, String name, String label, Set<InputValidator> validators,",
+                    "                                SimpleDateFormat format) {",
+                    "        super(name, label, validators, format.toPattern());",
+                    "    }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.TimePickerController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+                    "import java.text.SimpleDateFormat;",
+                    "import java.util.*;",
+                    "public class TimePickerController extends FormElementController {",
+                    "    public TimePickerController(Context ctx, String name, String label, Set<InputValidator> validators,",
+                    "                                SimpleDateFormat format, boolean is24HourView) {",
+                    "        super(name, label, validators, format.toPattern(), is24HourView);",
+                    "    }",
+                    "}"),
+            source("com.github.dkharrat.nexusdialog.controllers.ValueController",
+                    "package com.github.dkharrat.nexusdialog.controllers;",
+                    "import android.content.Context;",
+                    "import com.github.dkharrat.nexusdialog.FormElementController;",
+                    "public class ValueController extends FormElementController {",
+                    "    public ValueController(Context ctx, String name, String label) {",
+                    "        super(name, label, null);",
+                    "    }",
+                    "}"));
+
+    private static final String[] IMPORTS = {
+            "package test;",
+            "import com.github.dkharrat.nexusdialog.annotations.*;",
+            "import com.github.dkharrat.nexusdialog.validations.InputValidator;"
+    };
+
+    private static final JavaFileObject VALIDATORS = source("test.Validators",
+            "package test;",
+            "import com.github.dkharrat.nexusdialog.validations.InputValidator;",
+            "public class Validators {",
+            "    public static class NotBlank implements InputValidator {",
+            "        public Object validate(Object value, String fieldName, String fieldLabel) { return null; }",
+            "    }",
+            "    public static abstract class Abstract implements InputValidator {",
+            "    }",
+            "    public static class NoDefaultConstructor implements InputValidator {",
+            "        public NoDefaultConstructor(int limit) {}",
+            "        public Object validate(Object value, String fieldName, String fieldLabel) { return null; }",
+            "    }",
+            "    public static class NotAValidator {",
+            "    }",
+            "}");
+
+    public void testGeneratedDefinitionBuildsForm() throws Exception {
+        Compilation compilation = compile("Signup",
+                "@FormDefinition",
+                "public class Signup {",
+                "    @Section(name = \"personal\", title = \"Personal \\\"Info\\\"\")",
+                "    @TextField(label = \"Name\\r\\n\", placeholder = \"C:\\\\Users\", required = true,",
+                "            validators = Validators.NotBlank.class, inputType = 33)",
+                "    String name;",
+                "    @SelectionField(name = \"gender\", label = \"Gender\", prompt = \"Select\",",
+                "            items = {\"Male\", \"Fe\\tmale\"}, useItemsAsValues = false)",
+                "    String gender;",
+                "    @Section(title = \"Other\")",
+                "    @CheckBoxField(label = \"Hobbies\", items = {\"Read\\u00e9\", \"Run\"})",
+                "    String hobbies;",
+                "    @DateField(label = \"Date\", format = \"yyyy-MM-dd\")",
+                "    String date;",
+                "    @TimeField(label = \"Time\", format = \"HH:mm\", is24HourView = true)",
+                "    String time;",
+                "    @ValueField(label = \"Total\")",
+                "    String total;",
+                "}");
+        assertSuccess(compilation);
+
+        Object controller = initForm(compilation, "test.SignupDefinition");
+        List<?> sections = (List<?>) call(controller, "getSections");
+        assertEquals(2, sections.size());
+
+        Object personal = sections.get(0);
+        assertEquals("personal", call(personal, "getName"));
+        assertEquals("Personal \"Info\"", call(personal, "getLabel"));
+        List<?> personalElements = (List<?>) call(personal, "getElements");
+        assertEquals(2, personalElements.size());
+
+        Object name = personalElements.get(0);
+        assertEquals("EditTextController", name.getClass().getSimpleName());
+        assertEquals("name", call(name, "getName"));
+        assertEquals("Name\r\n", call(name, "getLabel"));
+        assertEquals(Arrays.asList("C:\\Users", 33), call(name, "getArguments"));
+        assertEquals(Arrays.asList("NotBlank", "RequiredFieldValidator"), validatorNames(name));
+
+        Object gender = personalElements.get(1);
+        assertEquals("gender", call(gender, "getName"));
+        assertEquals(Arrays.asList("Select", Arrays.asList("Male", "Fe\tmale"), false), call(gender, "getArguments"));
+        assertEquals(new ArrayList<String>(), validatorNames(gender));
+
+        Object other = sections.get(1);
+        assertNull(call(other, "getName"));
+        assertEquals("Other", call(other, "getLabel"));
+        List<?> otherElements = (List<?>) call(other, "getElements");
+        assertEquals(4, otherElements.size());
+        assertEquals(Arrays.asList(Arrays.asList("Read\u00e9", "Run"), true), call(otherElements.get(0), "getArguments"));
+        assertEquals(Arrays.asList("yyyy-MM-dd"), call(otherElements.get(1), "getArguments"));
+        assertEquals(Arrays.asList("HH:mm", true), call(otherElements.get(2), "getArguments"));
+        assertEquals("ValueController", otherElements.get(3).getClass().getSimpleName());
+        assertEquals("Total", call(otherElements.get(3), "getLabel"));
+    }
+
+    public void testElementsBeforeFirstSectionAreInUntitledSection() throws Exception {
+        Compilation compilation = compile("Untitled",
+                "@FormDefinition",
+                "public class Untitled {",
+                "    @ValueField String first;",
+                "    @Section(title = \"Second\") @ValueField String second;",
+                "}");
+        assertSuccess(compilation);
+
+        List<?> sections = (List<?>) call(initForm(compilation, "test.UntitledDefinition"), "getSections");
+        assertEquals(2, sections.size());
+        assertNull(call(sections.get(0), "getLabel"));
+        assertEquals(1, ((List<?>) call(sections.get(0), "getElements")).size());
+        assertEquals("Second", call(sections.get(1), "getLabel"));
+    }
+
+    public void testDuplicateElementNameIsAnError() throws Exception {
+        assertError(compile("Duplicates",
+                "@FormDefinition",
+                "public class Duplicates {",
+                "    @TextField(name = \"email\") String first;",
+                "    @TextField(name = \"email\") String second;",
+                "}"), "Duplicate element name 'email'");
+    }
+
+    public void testDuplicateSectionNameIsAnError() throws Exception {
+        assertError(compile("Duplicates",
+                "@FormDefinition",
+                "public class Duplicates {",
+                "    @Section(name = \"details\") @TextField String first;",
+                "    @Section(name = \"details\") @TextField String second;",
+                "}"), "Duplicate section name 'details'");
+    }
+
+    public void testSectionNamedLikeElementIsAnError() throws Exception {
+        assertError(compile("Duplicates",
+                "@FormDefinition",
+                "public class Duplicates {",
+                "    @TextField String details;",
+                "    @Section(name = \"details\") @TextField String second;",
+                "}"), "Duplicate section name 'details'");
+    }
+
+    public void testMultipleElementAnnotationsIsAnError() throws Exception {
+        assertError(compile("Multiple",
+                "@FormDefinition",
+                "public class Multiple {",
+                "    @TextField @ValueField String text;",
+                "}"), "A field can only declare a single element");
+    }
+
+    public void testSectionWithoutElementIsAnError() throws Exception {
+        assertError(compile("Orphan",
+                "@FormDefinition",
+                "public class Orphan {",
+                "    @Section(title = \"Empty\") String text;",
+                "}"), "@Section must be applied to a field that declares an element");
+    }
+
+    public void testEmptySelectionItemsIsAnError() throws Exception {
+        assertError(compile("NoItems",
+                "@FormDefinition",
+                "public class NoItems {",
+                "    @SelectionField(items = {}) String choice;",
+                "}"), "At least one item must be specified");
+    }
+
+    public void testEmptyCheckBoxItemsIsAnError() throws Exception {
+        assertError(compile("NoItems",
+                "@FormDefinition",
+                "public class NoItems {",
+                "    @CheckBoxField(items = {}) String choices;",
+                "}"), "At least one item must be specified");
+    }
+
+    public void testInvalidDatePatternIsAnError() throws Exception {
+        assertError(compile("BadDate",
+                "@FormDefinition",
+                "public class BadDate {",
+                "    @DateField(format = \"yyyy-qq\") String date;",
+                "}"), "Invalid date format 'yyyy-qq'");
+    }
+
+    public void testInvalidTimePatternIsAnError() throws Exception {
+        assertError(compile("BadTime",
+                "@FormDefinition",
+                "public class BadTime {",
+                "    @TimeField(format = \"HH:mm'\") String time;",
+                "}"), "Invalid date format 'HH:mm''");
+    }
+
+    public void testAbstractValidatorIsAnError() throws Exception {
+        assertError(compile("BadValidator",
+                "@FormDefinition",
+                "public class BadValidator {",
+                "    @TextField(validators = Validators.Abstract.class) String text;",
+                "}"), "must be a concrete class with a public no-arg constructor");
+    }
+
+    public void testValidatorWithoutNoArgConstructorIsAnError() throws Exception {
+        assertError(compile("BadValidator",
+                "@FormDefinition",
+                "public class BadValidator {",
+                "    @TextField(validators = Validators.NoDefaultConstructor.class) String text;",
+                "}"), "must be a concrete class with a public no-arg constructor");
+    }
+
+    public void testInterfaceValidatorIsAnError() throws Exception {
+        assertError(compile("BadValidator",
+                "@FormDefinition",
+                "public class BadValidator {",
+                "    @TextField(validators = InputValidator.class) String text;",
+                "}"), "must be a concrete class with a public no-arg constructor");
+    }
+
+    public void testValidatorNotImplementingInputValidatorIsAnError() throws Exception {
+        assertError(compile("BadValidator",
+                "@FormDefinition",
+                "public class BadValidator {",
+                "    @DateField(validators = Validators.NotAValidator.class) String date;",
+                "}"), "must implement InputValidator");
+    }
+
+    public void testElementOutsideFormDefinitionIsAnError() throws Exception {
+        assertError(compile("Plain",
+                "public class Plain {",
+                "    @TextField String text;",
+                "}"), "@TextField can only be used in classes annotated with @FormDefinition");
+    }
+
+    public void testFormDefinitionOnInterfaceIsAnError() throws Exception {
+        assertError(compile("Definition",
+                "@FormDefinition",
+                "public interface Definition {",
+                "}"), "@FormDefinition can only be applied to classes");
+    }
+
+    /**
+     * Compiles a class of the <code>test</code> package, whose source starts with the imports of the annotations.
+     */
+    private Compilation compile(String className, String... lines) throws Exception {
+        List<String> source = new ArrayList<String>(Arrays.asList(IMPORTS));
+        source.addAll(Arrays.asList(lines));
+        List<JavaFileObject> sources = new ArrayList<JavaFileObject>(STUBS);
+        sources.add(VALIDATORS);
+        sources.add(source("test." + className, source.toArray(new String[source.size()])));
+        return compile(new FormDefinitionProcessor(), sources);
+    }
+
+    private static Object initForm(Compilation compilation, String definitionClass) throws Exception {
+        Class<?> contextClass = compilation.loadClass("android.content.Context");
+        Class<?> controllerClass = compilation.loadClass("com.github.dkharrat.nexusdialog.FormController");
+        Object controller = controllerClass.newInstance();
+        compilation.loadClass(definitionClass).getMethod("initForm", contextClass, controllerClass)
+                .invoke(null, contextClass.newInstance(), controller);
+        return controller;
+    }
+
+    private static Object call(Object target, String method) throws Exception {
+        return target.getClass().getMethod(method).invoke(target);
+    }
+
+    private static List<String> validatorNames(Object element) throws Exception {
+        List<String> names = new ArrayList<String>();
+        for (Object validator : (Iterable<?>) call(element, "getValidators")) {
+            names.add(validator.getClass().getSimpleName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.dkharrat.nexusdialog.compiler;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+public class FormModelProcessorTest extends ProcessorTestCase {
+    private static final JavaFileObject FORM_MODEL_STUB = source("com.github.dkharrat.nexusdialog.FormModel",
+            "package com.github.dkharrat.nexusdialog;",
+            "public abstract class FormModel {",
+            "    protected abstract void setBackingValue(String name, Object newValue);",
+            "    protected abstract Object getBackingValue(String name);",
+            "    public final Object getValue(String name) { return getBackingValue(name); }",
+            "    public final void setValue(String name, Object newValue) { setBackingValue(name, newValue); }",
+            "}");
+
+    private static final String[] IMPORTS = {
+            "package test;",
+            "import com.github.dkharrat.nexusdialog.annotations.FormBinding;",
+            "import com.github.dkharrat.nexusdialog.annotations.FormField;"
+    };
+
+    public void testNumericFieldsConvertNumbers() throws Exception {
+        Compilation compilation = compileNumbers();
+        Object target = compilation.loadClass("test.Numbers").newInstance();
+        Object model = newModel(compilation, "test.NumbersFormModel", target);
+
+        setValue(model, "count", 42L);
+        assertEquals(42, getField(target, "count"));
+        setValue(model, "count", 7.9d);
+        assertEquals(7, getField(target, "count"));
+        setValue(model, "total", 3);
+        assertEquals(3L, getField(target, "total"));
+        setValue(model, "ratio", 2);
+        assertEquals(2.0d, getField(target, "ratio"));
+        setValue(model, "optional", 2.9f);
+        assertEquals(2, getField(target, "optional"));
+    }
+
+    public void testNumericFieldsParseText() throws Exception {
+        Compilation compilation = compileNumbers();
+        Object target = compilation.loadClass("test.Numbers").newInstance();
+        Object model = newModel(compilation, "test.NumbersFormModel", target);
+
+        setValue(model, "count", " 7 ");
+        assertEquals(7, getField(target, "count"));
+        setValue(model, "total", new StringBuilder("12345678901"));
+        assertEquals(12345678901L, getField(target, "total"));
+        setValue(model, "ratio", "4.5");
+        assertEquals(4.5d, getField(target, "ratio"));
+        setValue(model, "count", "4.5");
+        assertEquals(4, getField(target, "count"));
+    }
+
+    public void testTextThatIsNotANumberLeavesFieldUnchanged() throws Exception {
+        Compilation compilation = compileNumbers();
+        Object target = compilation.loadClass("test.Numbers").newInstance();
+        Object model = newModel(compilation, "test.NumbersFormModel", target);
+
+        setValue(model, "count", "12");
+        setValue(model, "count", "12a");
+        assertEquals(12, getField(target, "count"));
+        setValue(model, "optional", "5");
+        setValue(model, "optional", "-");
+        assertEquals(5, getField(target, "optional"));
+    }
+
+    public void testEmptyTextAndNullClearNumericFields() throws Exception {
+        Compilation compilation = compileNumbers();
+        Object target = compilation.loadClass("test.Numbers").newInstance();
+        Object model = newModel(compilation, "test.NumbersFormModel", target);
+
+        setValue(model, "count", 3);
+        setValue(model, "count", "  ");
+        assertEquals(0, getField(target, "count"));
+        setValue(model, "ratio", 3);
+        setValue(model, "ratio", null);
+        assertEquals(0.0d, getField(target, "ratio"));
+        setValue(model, "optional", 3);
+        setValue(model, "optional", "");
+        assertNull(getField(target, "optional"));
+    }
+
+    public void testAccessorsAndUnboundNames() throws Exception {
+        Compilation compilation = compile("Person",
+                "@FormBinding",
+                "public class Person {",
+                "    @FormField(\"full_name\") private String name;",
+                "    @FormField private boolean active;",
+                "    public String getName() { return name; }",
+                "    public void setName(String name) { this.name = name.trim(); }",
+                "    public boolean isActive() { return active; }",
+                "    public void setActive(boolean active) { this.active = active; }",
+                "}");
+        assertSuccess(compilation);
+        Object target = compilation.loadClass("test.Person").newInstance();
+        Object model = newModel(compilation, "test.PersonFormModel", target);
+
+        setValue(model, "full_name", " Jane ");
+        assertEquals("Jane", getValue(model, "full_name"));
+        setValue(model, "active", true);
+        assertEquals(true, getValue(model, "active"));
+        setValue(model, "active", null);
+        assertEquals(false, getValue(model, "active"));
+
+        setValue(model, "name", "ignored");
+        assertNull(getValue(model, "name"));
+        assertEquals("Jane", getValue(model, "full_name"));
+    }
+
+    public void testNamesAreEscapedInGeneratedSource() throws Exception {
+        String name = "quote\" backslash\\ tab\t cr\r lf\n bs\b ff\f bell\u0007 del\u007f e\u00e9 \u20ac1";
+        Compilation compilation = compile("Escapes",
+                "@FormBinding",
+                "public class Escapes {",
+                "    @FormField(" + javaLiteral(name) + ") public String text;",
+                "}");
+        assertSuccess(compilation);
+        Object target = compilation.loadClass("test.Escapes").newInstance();
+        Object model = newModel(compilation, "test.EscapesFormModel", target);
+
+        setValue(model, name, "value");
+        assertEquals("value", getField(target, "text"));
+        assertEquals("value", getValue(model, name));
+
+        String source = compilation.getGeneratedSource("test.EscapesFormModel");
+        assertTrue(source.contains("\\\" backslash\\\\ tab\\t cr\\r lf\\n bs\\b ff\\f bell\\007 del\\177 e\\u00e9"));
+        assertFalse(source.contains("\\u000a"));
+        assertFalse(source.contains("\\u000d"));
+        assertFalse(source.contains("\\u0022"));
+        assertFalse(source.contains("\\u005c"));
+    }
+
+    public void testFormFieldOutsideFormBindingIsAnError() throws Exception {
+        assertError(compile("Plain",
+                "public class Plain {",
+                "    @FormField public String text;",
+                "}"), "@FormField can only be used in classes annotated with @FormBinding");
+    }
+
+    public void testFormBindingOnInterfaceIsAnError() throws Exception {
+        assertError(compile("Binding",
+                "@FormBinding",
+                "public interface Binding {",
+                "}"), "@FormBinding can only be applied to classes");
+    }
+
+    public void testPrivateClassIsAnError() throws Exception {
+        assertError(compile("Outer",
+                "public class Outer {",
+                "    @FormBinding private static class Inner {",
+                "        @FormField public String text;",
+                "    }",
+                "}"), "must not be private");
+    }
+
+    public void testInnerClassIsAnError() throws Exception {
+        assertError(compile("Outer",
+                "public class Outer {",
+                "    @FormBinding public class Inner {",
+                "        @FormField public String text;",
+                "    }",
+                "}"), "Nested classes annotated with @FormBinding must be static");
+    }
+
+    public void testGenericClassIsAnError() throws Exception {
+        assertError(compile("Generic",
+                "@FormBinding",
+                "public class Generic<T> {",
+                "    @FormField public String text;",
+                "}"), "must not be generic");
+    }
+
+    public void testDuplicateNameIsAnError() throws Exception {
+        assertError(compile("Duplicates",
+                "@FormBinding",
+                "public class Duplicates {",
+                "    @FormField(\"name\") public String first;",
+                "    @FormField(\"name\") public String second;",
+                "}"), "Duplicate form field name 'name'");
+    }
+
+    public void testStaticFieldIsAnError() throws Exception {
+        assertError(compile("Statics",
+                "@FormBinding",
+                "public class Statics {",
+                "    @FormField public static String text;",
+                "}"), "@FormField can't be applied to static fields");
+    }
+
+    public void testPrivateFieldWithoutGetterIsAnError() throws Exception {
+        assertError(compile("NoGetter",
+                "@FormBinding",
+                "public class NoGetter {",
+                "    @FormField private String text;",
+                "    public void setText(String text) { this.text = text; }",
+                "}"), "Private field 'text' has no getter");
+    }
+
+    public void testFinalFieldWithoutSetterIsAnError() throws Exception {
+        assertError(compile("NoSetter",
+                "@FormBinding",
+                "public class NoSetter {",
+                "    @FormField public final String text = \"\";",
+                "}"), "Field 'text' is private or final, and has no setter");
+    }
+
+    private Compilation compileNumbers() throws Exception {
+        Compilation compilation = compile("Numbers",
+                "@FormBinding",
+                "public class Numbers {",
+                "    @FormField public int count;",
+                "    @FormField public Long total;",
+                "    @FormField public double ratio;",
+                "    @FormField public Integer optional;",
+                "}");
+        assertSuccess(compilation);
+        return compilation;
+    }
+
+    /**
+     * Compiles a class of the <code>test</code> package, whose source starts with the imports of the annotations.
+     */
+    private Compilation compile(String className, String... lines) throws Exception {
+        List<String> source = new ArrayList<String>(Arrays.asList(IMPORTS));
+        source.addAll(Arrays.asList(lines));
+        JavaFileObject file = source("test." + className, source.toArray(new String[source.size()]));
+        return compile(new FormModelProcessor(), Arrays.asList(FORM_MODEL_STUB, file));
+    }
+
+    private static Object newModel(Compilation compilation, String modelClass, Object target) throws Exception {
+        return compilation.loadClass(modelClass).getConstructor(target.getClass()).newInstance(target);
+    }
+
+    private static void setValue(Object model, String name, Object value) throws Exception {
+        Method setValue = model.getClass().getMethod("setValue", String.class, Object.class);
+        setValue.invoke(model, name, value);
+    }
+
+    private static Object getValue(Object model, String name) throws Exception {
+        return model.getClass().getMethod("getValue", String.class).invoke(model, name);
+    }
+
+    private static Object getField(Object target, String name) throws Exception {
+        return target.getClass().getField(name).get(target);
+    }
+
+    /**
+     * Returns a Java literal for a string, independently of the implementation under test.
+     */
+    private static String javaLiteral(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c >= 0x20 && c < 0x7f && c != '"' && c != '\\') {
+                literal.append(c);
+            } else {
+                literal.append(String.format(c > 0xff ? "\\u%04x" : "\\%03o", (int) c));
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
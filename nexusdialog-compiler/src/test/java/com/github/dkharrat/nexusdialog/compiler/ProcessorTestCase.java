@@ -0,0 +1,192 @@
+package com.github.dkharrat.nexusdialog.compiler;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Base class of the tests of the annotation processors. Sources are compiled in memory with the system Java compiler and
+ * the processor under test, and the generated sources are compiled along with them, so that tests can check both the
+ * reported errors and the behavior of the generated classes.
+ */
+public abstract class ProcessorTestCase extends TestCase {
+    private File outputDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        outputDir = Files.createTempDirectory("processor-test").toFile();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(outputDir);
+        super.tearDown();
+    }
+
+    /**
+     * Returns a source file with the specified content.
+     *
+     * @param qualifiedName the qualified name of the top-level class declared by the source
+     * @param lines         the lines of the source
+     * @return              the source file
+     */
+    protected static JavaFileObject source(String qualifiedName, String... lines) {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(line).append('\n');
+        }
+        return new StringSource(qualifiedName, content.toString());
+    }
+
+    /**
+     * Compiles the specified sources with a processor.
+     *
+     * @param processor the processor to run
+     * @param sources   the sources to compile, including stubs of the classes that generated code refers to
+     * @return          the result of the compilation
+     */
+    protected Compilation compile(Processor processor, List<JavaFileObject> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, null);
+        try {
+            File classesDir = new File(outputDir, "classes");
+            File generatedDir = new File(outputDir, "generated");
+            if (!classesDir.mkdirs() || !generatedDir.mkdirs()) {
+                throw new IOException("Failed to create output directories in " + outputDir);
+            }
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(classesDir));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(generatedDir));
+
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            task.setProcessors(Collections.singletonList(processor));
+            boolean success = task.call();
+            return new Compilation(success, diagnostics.getDiagnostics(), classesDir, generatedDir);
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    /**
+     * Asserts that a compilation failed with an error containing the specified message.
+     */
+    protected static void assertError(Compilation compilation, String message) {
+        assertFalse("compilation should have failed", compilation.isSuccess());
+        List<String> errors = compilation.getErrors();
+        for (String error : errors) {
+            if (error.contains(message)) {
+                return;
+            }
+        }
+        fail("no error containing '" + message + "' in " + errors);
+    }
+
+    /**
+     * Asserts that a compilation succeeded, reporting its errors otherwise.
+     */
+    protected static void assertSuccess(Compilation compilation) {
+        assertTrue("compilation failed: " + compilation.getErrors(), compilation.isSuccess());
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * The result of compiling sources with a processor.
+     */
+    protected static final class Compilation {
+        private final boolean success;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final File classesDir;
+        private final File generatedDir;
+        private ClassLoader classLoader;
+
+        Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, File classesDir,
+                    File generatedDir) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.classesDir = classesDir;
+            this.generatedDir = generatedDir;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Returns the messages of the errors reported by the compiler and the processor.
+         */
+        public List<String> getErrors() {
+            List<String> errors = new ArrayList<String>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    errors.add(diagnostic.getMessage(Locale.ROOT));
+                }
+            }
+            return errors;
+        }
+
+        /**
+         * Returns the content of a source file generated by the processor.
+         */
+        public String getGeneratedSource(String qualifiedName) throws IOException {
+            File file = new File(generatedDir, qualifiedName.replace('.', File.separatorChar) + ".java");
+            return new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+        }
+
+        /**
+         * Loads a compiled class, including the generated ones.
+         */
+        public Class<?> loadClass(String qualifiedName) throws Exception {
+            if (classLoader == null) {
+                classLoader = new URLClassLoader(new URL[] { classesDir.toURI().toURL() },
+                        ProcessorTestCase.class.getClassLoader());
+            }
+            return classLoader.loadClass(qualifiedName);
+        }
+    }
+
+    private static final class StringSource extends SimpleJavaFileObject {
+        private final String content;
+
+        StringSource(String qualifiedName, String content) {
+            super(URI.create("string:///" + qualifiedName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.util.Log;
+
+import java.util.Locale;
+
+/**
+ * Measures the time taken by operations in benchmark tests. Results are written to the log with the tag
+ * <code>NexusDialogBenchmark</code>, e.g. to be collected with <code>adb logcat -s NexusDialogBenchmark</code>.
+ */
+public final class Benchmarks {
+    public static final String TAG = "NexusDialogBenchmark";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs an operation repeatedly, after running it the same number of times to warm up, and logs the average time taken.
+     *
+     * @param name          the name of the operation, as it should appear in the log
+     * @param iterations    the number of times to run the operation
+     * @param operation     the operation to measure
+     * @return              the average time taken by the operation, in nanoseconds
+     */
+    public static double measure(String name, int iterations, Runnable operation) {
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        double nanosPerRun = (double)(System.nanoTime() - startTime) / iterations;
+
+        Log.i(TAG, String.format(Locale.US, "%s: %.0f ns/op (%d runs)", name, nanosPerRun, iterations));
+        return nanosPerRun;
+    }
+}
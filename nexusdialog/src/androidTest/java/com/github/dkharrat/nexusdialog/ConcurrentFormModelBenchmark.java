@@ -0,0 +1,64 @@
+package com.github.dkharrat.nexusdialog;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the throughput of background threads writing different fields of a {@link ConcurrentFormModel} at the same
+ * time. The baseline model uses a single lock for all fields, as the model did before its locks were striped.
+ */
+public class ConcurrentFormModelBenchmark extends TestCase {
+    private static final int WRITERS = 4;
+    private static final int FIELDS_PER_WRITER = 8;
+    private static final int WRITES_PER_WRITER = 10000;
+
+    public void testContendedWritesWithStripedLocks() {
+        measureWrites("ConcurrentFormModel contended writes", new ConcurrentFormModel());
+    }
+
+    public void testContendedWritesWithSingleLock() {
+        measureWrites("ConcurrentFormModel contended writes (single lock)", new ConcurrentFormModel(1));
+    }
+
+    private static void measureWrites(String name, final ConcurrentFormModel model) {
+        Benchmarks.measure(name + ", " + WRITERS + " threads x " + WRITES_PER_WRITER + " writes", 20, new Runnable() {
+            @Override public void run() {
+                writeConcurrently(model);
+            }
+        });
+    }
+
+    private static void writeConcurrently(final ConcurrentFormModel model) {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[WRITERS];
+        for (int writer = 0; writer < WRITERS; writer++) {
+            final String[] fields = new String[FIELDS_PER_WRITER];
+            for (int field = 0; field < FIELDS_PER_WRITER; field++) {
+                fields[field] = "writer" + writer + "_field" + field;
+            }
+            writers[writer] = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        model.setValue(fields[i % FIELDS_PER_WRITER], i);
+                    }
+                }
+            });
+            writers[writer].start();
+        }
+
+        start.countDown();
+        try {
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
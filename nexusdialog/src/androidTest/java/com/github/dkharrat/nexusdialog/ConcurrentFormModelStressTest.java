@@ -0,0 +1,132 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Writes to a {@link ConcurrentFormModel} from several background threads and from the main thread at the same time, and
+ * checks that the notifications delivered on the main thread form a consistent history of each field: every change
+ * starts from the value delivered by the previous change, and the last delivered value is the final value of the field.
+ */
+public class ConcurrentFormModelStressTest extends InstrumentationTestCase {
+    private static final String[] FIELDS = {"a", "b", "c", "d", "e"};
+    private static final int WRITERS = 4;
+    private static final int WRITES_PER_WRITER = 20000;
+    private static final int MAIN_THREAD_WRITES = 200;
+    private static final long DELIVERY_TIMEOUT_MS = 10000;
+
+    private ConcurrentFormModel model;
+    // only accessed on the main thread
+    private final Map<String,Object> deliveredValues = new HashMap<String,Object>();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new ConcurrentFormModel();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override public void run() {
+                model.addFieldChangeListener(new FieldChangeListener() {
+                    @Override public void onFieldChanged(String fieldName, Object oldValue, Object newValue) {
+                        checkChange(fieldName, oldValue, newValue);
+                    }
+                });
+            }
+        });
+    }
+
+    public void testConcurrentWritersDeliverConsistentHistory() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<Thread>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            final int writerIndex = writer;
+            Thread thread = new Thread(new Runnable() {
+                @Override public void run() {
+                    awaitQuietly(start);
+                    write(writerIndex);
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+
+        start.countDown();
+        for (int i = 0; i < MAIN_THREAD_WRITES; i++) {
+            final String field = FIELDS[i % FIELDS.length];
+            final Integer value = -i - 1;
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override public void run() {
+                    model.setValue(field, value);
+                }
+            });
+        }
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        awaitDelivery();
+        assertTrue("Inconsistent notifications: " + errors, errors.isEmpty());
+    }
+
+    private void write(int writerIndex) {
+        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+            String field = FIELDS[(writerIndex + i) % FIELDS.length];
+            Integer value = writerIndex * WRITES_PER_WRITER + i;
+            if (i % 100 == 0) {
+                model.beginBatch();
+                model.setValue(field, value);
+                model.setValue(FIELDS[(writerIndex + i + 1) % FIELDS.length], null);
+                model.commit();
+            } else if (i % 10 == 0) {
+                model.compareAndSetValue(field, model.getValue(field), value);
+            } else {
+                model.setValue(field, value);
+            }
+        }
+    }
+
+    private void checkChange(String fieldName, Object oldValue, Object newValue) {
+        Object deliveredValue = deliveredValues.get(fieldName);
+        if (!FormModel.objectsEqual(deliveredValue, oldValue)) {
+            errors.add(fieldName + ": change from " + oldValue + " after " + deliveredValue + " was delivered");
+        }
+        if (FormModel.objectsEqual(oldValue, newValue)) {
+            errors.add(fieldName + ": change from " + oldValue + " to the same value");
+        }
+        deliveredValues.put(fieldName, newValue);
+    }
+
+    /**
+     * Waits until the delivered value of each field is its current value.
+     */
+    private void awaitDelivery() {
+        final boolean[] delivered = new boolean[1];
+        long deadline = SystemClock.uptimeMillis() + DELIVERY_TIMEOUT_MS;
+        while (!delivered[0] && SystemClock.uptimeMillis() < deadline) {
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override public void run() {
+                    delivered[0] = true;
+                    for (String field : FIELDS) {
+                        delivered[0] &= FormModel.objectsEqual(deliveredValues.get(field), model.getValue(field));
+                    }
+                }
+            });
+        }
+        assertTrue("Changes were not all delivered", delivered[0]);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import com.github.dkharrat.nexusdialog.controllers.EditTextController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.SelectionController;
+
+import java.util.Arrays;
+
+/**
+ * Measures {@link FormController#refreshElements()} on forms of text and selection fields. Elements keep direct
+ * references to their field views; the baseline adds the <code>findViewById</code> lookup that each element's
+ * <code>refresh()</code> used to make before refreshing its field, to compare with the previous implementation.
+ */
+public class FormControllerRefreshBenchmark extends InstrumentationTestCase {
+    public void testRefreshElements100Fields() {
+        measureRefresh(100, 200);
+    }
+
+    public void testRefreshElements1000Fields() {
+        measureRefresh(1000, 20);
+    }
+
+    private void measureRefresh(final int fields, final int iterations) {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override public void run() {
+                final FormController controller = createForm(getInstrumentation().getTargetContext(), fields);
+
+                Benchmarks.measure("FormController.refreshElements of " + fields + " fields", iterations,
+                        new Runnable() {
+                            @Override public void run() {
+                                controller.refreshElements();
+                            }
+                        });
+
+                Benchmarks.measure("FormController.refreshElements of " + fields + " fields with findViewById",
+                        iterations, new Runnable() {
+                            @Override public void run() {
+                                for (FormSectionController section : controller.getSections()) {
+                                    for (FormElementController element : section.getElements()) {
+                                        lookUpFieldView(element);
+                                    }
+                                }
+                                controller.refreshElements();
+                            }
+                        });
+
+                controller.destroyViews();
+            }
+        });
+    }
+
+    /**
+     * Looks up the field view of an element from the element's view, like <code>refresh()</code> did before elements
+     * kept a reference to it.
+     */
+    private static View lookUpFieldView(FormElementController element) {
+        int fieldId;
+        if (element instanceof EditTextController) {
+            fieldId = ((EditTextController) element).getEditText().getId();
+        } else {
+            fieldId = ((SelectionController) element).getSpinner().getId();
+        }
+        return element.getView().findViewById(fieldId);
+    }
+
+    private static FormController createForm(Context context, int fields) {
+        MapFormModel model = new MapFormModel();
+        FormController controller = new FormController(context, model);
+        FormSectionController section = new FormSectionController(context, "section", "Section");
+        for (int i = 0; i < fields; i++) {
+            String name = "field" + i;
+            if (i % 2 == 0) {
+                section.addElement(new EditTextController(context, name, "Field " + i));
+                model.setValue(name, "Value " + i);
+            } else {
+                section.addElement(new SelectionController(context, name, "Field " + i, false, "Select",
+                        Arrays.asList("One", "Two", "Three"), true));
+                model.setValue(name, "Two");
+            }
+        }
+        controller.addSection(section);
+
+        LinearLayout container = new LinearLayout(context);
+        container.setOrientation(LinearLayout.VERTICAL);
+        controller.recreateViews(container);
+        return controller;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.test.InstrumentationTestCase;
+import android.view.View;
+
+import com.github.dkharrat.nexusdialog.controllers.EditTextController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+
+public class FormElementsAdapterTest extends InstrumentationTestCase {
+    private static final int FIELDS = 2000;
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+    private static final int MAX_LIVE_VIEWS = 100;
+
+    public void testScrollingKeepsLiveViewsBounded() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override public void run() {
+                Context context = getInstrumentation().getTargetContext();
+                MapFormModel model = new MapFormModel();
+                FormController controller = new FormController(context, model);
+                FormSectionController section = new FormSectionController(context, "section", "Section");
+                for (int i = 0; i < FIELDS; i++) {
+                    String name = "field" + i;
+                    section.addElement(new EditTextController(context, name, "Field " + i));
+                    model.setValue(name, "Value " + i);
+                }
+                controller.addSection(section);
+
+                RecyclerView recyclerView = new RecyclerView(context);
+                controller.recreateViews(recyclerView);
+                layout(recyclerView);
+                assertTrue("no element view was created", countLiveViews(section) > 0);
+
+                int maxLiveViews = 0;
+                for (int i = 0; i < FIELDS && recyclerView.canScrollVertically(1); i++) {
+                    recyclerView.scrollBy(0, HEIGHT / 2);
+                    layout(recyclerView);
+                    maxLiveViews = Math.max(maxLiveViews, countLiveViews(section));
+                }
+                assertFalse("the form was not scrolled to its end", recyclerView.canScrollVertically(1));
+                assertTrue("live element views: " + maxLiveViews, maxLiveViews <= MAX_LIVE_VIEWS);
+                assertTrue(section.getElements().get(FIELDS - 1).isViewCreated());
+                assertFalse(section.getElements().get(0).isViewCreated());
+
+                // scrolling back recreates the views from the model
+                recyclerView.scrollToPosition(1);
+                layout(recyclerView);
+                EditTextController first = (EditTextController) section.getElements().get(0);
+                assertTrue(first.isViewCreated());
+                assertEquals("Value 0", first.getEditText().getText().toString());
+                assertTrue(countLiveViews(section) <= MAX_LIVE_VIEWS);
+
+                controller.destroyViews();
+            }
+        });
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static int countLiveViews(FormSectionController section) {
+        int count = 0;
+        for (FormElementController element : section.getElements()) {
+            if (element.isViewCreated()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
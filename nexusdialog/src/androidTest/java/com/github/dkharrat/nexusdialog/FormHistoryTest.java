@@ -0,0 +1,87 @@
+package com.github.dkharrat.nexusdialog;
+
+import junit.framework.TestCase;
+
+public class FormHistoryTest extends TestCase {
+    private MapFormModel model;
+    private FormHistory history;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new MapFormModel();
+        history = new FormHistory(model);
+    }
+
+    public void testKeystrokesInSameFieldAreMerged() {
+        type("name", "J");
+        type("name", "Jo");
+        type("name", "Joe");
+
+        assertTrue(history.undo());
+        assertNull(model.getValue("name"));
+        assertFalse(history.canUndo());
+
+        assertTrue(history.redo());
+        assertEquals("Joe", model.getValue("name"));
+    }
+
+    public void testKeystrokesInDifferentFieldsAreNotMerged() {
+        type("first", "a");
+        type("last", "b");
+
+        assertTrue(history.undo());
+        assertEquals("a", model.getValue("first"));
+        assertNull(model.getValue("last"));
+        assertTrue(history.canUndo());
+    }
+
+    public void testSelectionsAreNotMerged() {
+        model.setValue("gender", "Male");
+        model.setValue("gender", "Female");
+
+        assertTrue(history.undo());
+        assertEquals("Male", model.getValue("gender"));
+        assertTrue(history.undo());
+        assertNull(model.getValue("gender"));
+    }
+
+    public void testProgrammaticChangeAfterKeystrokeIsNotMerged() {
+        type("name", "Jo");
+        model.setValue("name", "John");
+
+        assertTrue(history.undo());
+        assertEquals("Jo", model.getValue("name"));
+        assertTrue(history.undo());
+        assertNull(model.getValue("name"));
+    }
+
+    public void testKeystrokeAfterProgrammaticChangeIsNotMerged() {
+        model.setValue("name", "John");
+        type("name", "Joh");
+
+        assertTrue(history.undo());
+        assertEquals("John", model.getValue("name"));
+    }
+
+    public void testBatchIsSingleStep() {
+        model.beginBatch();
+        model.setValue("first", "a");
+        model.setValue("last", "b");
+        model.commit();
+
+        assertTrue(history.undo());
+        assertNull(model.getValue("first"));
+        assertNull(model.getValue("last"));
+        assertFalse(history.canUndo());
+    }
+
+    private void type(String field, String text) {
+        model.beginTextInput();
+        try {
+            model.setValue(field, text);
+        } finally {
+            model.endTextInput();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.dkharrat.nexusdialog;
+
+import junit.framework.TestCase;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.Set;
+
+/**
+ * Measures the cost of changing a value of a model, as done on every keystroke in a text field. The baseline fires the
+ * same change through a <code>PropertyChangeSupport</code> with one listener, which is how models notified their
+ * listeners before.
+ */
+public class FormModelBenchmark extends TestCase {
+    private static final int ITERATIONS = 100000;
+
+    public void testSetValueWithChangeSetListener() {
+        final MapFormModel model = new MapFormModel();
+        // the same kind of listener that FormController registers
+        model.addChangeSetListener(new ChangeSetListener() {
+            int count;
+            @Override public void onFieldsChanged(Set<String> fieldNames) {
+                for (String fieldName : fieldNames) {
+                    count += fieldName.length();
+                }
+            }
+        });
+
+        Benchmarks.measure("FormModel.setValue", ITERATIONS, new Runnable() {
+            int i;
+            @Override public void run() {
+                model.setValue("name", (i++ & 1) == 0 ? "John" : "Jane");
+            }
+        });
+    }
+
+    public void testSetValueWithFieldChangeListener() {
+        final MapFormModel model = new MapFormModel();
+        model.addFieldChangeListener("name", new FieldChangeListener() {
+            @Override public void onFieldChanged(String fieldName, Object oldValue, Object newValue) {
+            }
+        });
+
+        Benchmarks.measure("FormModel.setValue (field listener)", ITERATIONS, new Runnable() {
+            int i;
+            @Override public void run() {
+                model.setValue("name", (i++ & 1) == 0 ? "John" : "Jane");
+            }
+        });
+    }
+
+    public void testFirePropertyChangeBaseline() {
+        final PropertyChangeSupport support = new PropertyChangeSupport(this);
+        support.addPropertyChangeListener(new PropertyChangeListener() {
+            int count;
+            @Override public void propertyChange(PropertyChangeEvent event) {
+                count += event.getPropertyName().length();
+            }
+        });
+
+        Benchmarks.measure("PropertyChangeSupport.firePropertyChange", ITERATIONS, new Runnable() {
+            int i;
+            @Override public void run() {
+                boolean even = (i++ & 1) == 0;
+                support.firePropertyChange("name", even ? "Jane" : "John", even ? "John" : "Jane");
+            }
+        });
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.dkharrat.nexusdialog;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FormModelTest extends TestCase {
+    private MapFormModel model;
+    private List<Set<String>> changeSets;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new MapFormModel();
+        changeSets = new ArrayList<Set<String>>();
+        model.addChangeSetListener(new ChangeSetListener() {
+            @Override public void onFieldsChanged(Set<String> fieldNames) {
+                changeSets.add(new LinkedHashSet<String>(fieldNames));
+            }
+        });
+    }
+
+    public void testSetValueNotifiesChangeSetWithSingleField() {
+        model.setValue("name", "John");
+        model.setValue("name", "John");
+        model.setValue("age", 30);
+
+        assertEquals(2, changeSets.size());
+        assertEquals(setOf("name"), changeSets.get(0));
+        assertEquals(setOf("age"), changeSets.get(1));
+    }
+
+    public void testChangeSetOfSingleFieldIsReadOnly() {
+        model.addChangeSetListener(new ChangeSetListener() {
+            @Override public void onFieldsChanged(Set<String> fieldNames) {
+                assertEquals(1, fieldNames.size());
+                assertTrue(fieldNames.contains("name"));
+                assertFalse(fieldNames.contains("age"));
+                try {
+                    fieldNames.add("age");
+                    fail("expected the change set to be read-only");
+                } catch (UnsupportedOperationException e) {
+                    // expected
+                }
+            }
+        });
+
+        model.setValue("name", "John");
+    }
+
+    public void testChangeMadeByListenerIsDeliveredSeparately() {
+        model.addChangeSetListener(new ChangeSetListener() {
+            @Override public void onFieldsChanged(Set<String> fieldNames) {
+                if (fieldNames.contains("first")) {
+                    model.setValue("second", "b");
+                    // the set of the outer change must not be affected by the nested one
+                    assertEquals(setOf("first"), new LinkedHashSet<String>(fieldNames));
+                }
+            }
+        });
+
+        model.setValue("first", "a");
+
+        assertEquals(2, changeSets.size());
+        assertEquals(setOf("first"), changeSets.get(0));
+        assertEquals(setOf("second"), changeSets.get(1));
+    }
+
+    public void testChangeSetOfSingleFieldCanBeIteratedRepeatedly() {
+        final List<String> iterated = new ArrayList<String>();
+        model.addChangeSetListener(new ChangeSetListener() {
+            @Override public void onFieldsChanged(Set<String> fieldNames) {
+                Iterator<String> outer = fieldNames.iterator();
+                assertTrue(outer.hasNext());
+                // iterating again while the first iterator hasn't returned the name must not affect it
+                for (String fieldName : fieldNames) {
+                    iterated.add(fieldName);
+                }
+                iterated.add(outer.next());
+                assertFalse(outer.hasNext());
+                for (String fieldName : fieldNames) {
+                    iterated.add(fieldName);
+                }
+            }
+        });
+
+        model.setValue("name", "John");
+        model.setValue("age", 30);
+
+        assertEquals(Arrays.asList("name", "name", "name", "age", "age", "age"), iterated);
+    }
+
+    public void testBatchNotifiesChangeSetOnCommit() {
+        model.beginBatch();
+        model.setValue("first", "a");
+        model.setValue("second", "b");
+        assertTrue(changeSets.isEmpty());
+        model.commit();
+
+        assertEquals(1, changeSets.size());
+        assertEquals(setOf("first", "second"), changeSets.get(0));
+    }
+
+    public void testModelNotMarkedCleanHasNoDirtyFields() {
+        model.setValue("name", "John");
+
+        assertFalse(model.isDirty());
+        assertFalse(model.isDirty("name"));
+        assertTrue(model.getDirtyFields().isEmpty());
+        assertTrue(model.exportChanges().isEmpty());
+    }
+
+    public void testFieldChangedAndRevertedIsClean() {
+        model.setValue("name", "John");
+        model.markClean();
+
+        model.setValue("name", "Jane");
+        assertTrue(model.isDirty());
+        assertTrue(model.isDirty("name"));
+        model.setValue("name", "Joe");
+        assertTrue(model.isDirty("name"));
+        model.setValue("name", "John");
+
+        assertFalse(model.isDirty());
+        assertFalse(model.isDirty("name"));
+        assertTrue(model.getDirtyFields().isEmpty());
+    }
+
+    public void testFieldChangedFromAndToNull() {
+        model.setValue("name", "John");
+        model.markClean();
+
+        model.setValue("city", "Paris");
+        model.setValue("name", null);
+        assertEquals(setOf("city", "name"), model.getDirtyFields());
+        Map<String,Object> changes = model.exportChanges();
+        assertEquals("Paris", changes.get("city"));
+        assertTrue(changes.containsKey("name"));
+        assertNull(changes.get("name"));
+
+        model.setValue("city", null);
+        model.setValue("name", "John");
+        assertFalse(model.isDirty());
+    }
+
+    public void testChangesOfBatchAreTracked() {
+        model.setValue("first", "a");
+        model.markClean();
+
+        model.beginBatch();
+        model.setValue("first", "b");
+        model.setValue("second", "x");
+        model.setValue("third", "y");
+        model.setValue("third", null);
+        model.commit();
+
+        assertEquals(setOf("first", "second"), model.getDirtyFields());
+
+        model.beginBatch();
+        model.setValue("first", "a");
+        model.commit();
+        assertEquals(setOf("second"), model.getDirtyFields());
+    }
+
+    public void testExportChangesReturnsCurrentValuesOfDirtyFields() {
+        model.setValue("name", "John");
+        model.setValue("age", 30);
+        model.markClean();
+
+        model.setValue("age", 31);
+        model.setValue("city", "Paris");
+        model.setValue("age", 32);
+
+        Map<String,Object> changes = model.exportChanges();
+        assertEquals(Arrays.asList("age", "city"), new ArrayList<String>(changes.keySet()));
+        assertEquals(32, changes.get("age"));
+        assertEquals("Paris", changes.get("city"));
+
+        // the exported map is a copy
+        changes.put("name", "Jane");
+        assertFalse(model.isDirty("name"));
+        assertEquals("John", model.getValue("name"));
+    }
+
+    public void testMarkCleanStartsTrackingFromCurrentValues() {
+        model.setValue("name", "John");
+        model.markClean();
+        model.setValue("name", "Jane");
+        model.markClean();
+
+        assertFalse(model.isDirty());
+        model.setValue("name", "John");
+        assertTrue(model.isDirty("name"));
+        assertEquals("John", model.exportChanges().get("name"));
+    }
+
+    public void testDirtyFieldsAreReadOnly() {
+        model.markClean();
+        model.setValue("name", "John");
+        try {
+            model.getDirtyFields().clear();
+            fail("expected the dirty fields to be read-only");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertTrue(model.isDirty("name"));
+    }
+
+    private static Set<String> setOf(String... names) {
+        Set<String> set = new LinkedHashSet<String>();
+        for (String name : names) {
+            set.add(name);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.dkharrat.nexusdialog;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+public class MapFormModelTest extends TestCase {
+    private MapFormModel model;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new MapFormModel();
+        model.setValue("name", "John");
+        model.setValue("age", 30);
+    }
+
+    public void testWritesAfterSnapshotDoNotChangeIt() {
+        FormSnapshot snapshot = model.snapshot();
+
+        model.setValue("name", "Jane");
+        model.setValue("city", "Paris");
+        model.setValue("age", null);
+
+        assertEquals(2, snapshot.size());
+        assertEquals("John", snapshot.getValue("name"));
+        assertEquals(30, snapshot.getValue("age"));
+        assertFalse(snapshot.containsField("city"));
+        assertEquals("Jane", model.getValue("name"));
+        assertEquals("Paris", model.getValue("city"));
+    }
+
+    public void testWritesAfterSecondSnapshotAreIsolated() {
+        FormSnapshot first = model.snapshot();
+        model.setValue("name", "Jane");
+        FormSnapshot second = model.snapshot();
+        model.setValue("name", "Joe");
+        model.setValue("age", 31);
+        FormSnapshot third = model.snapshot();
+
+        assertEquals("John", first.getValue("name"));
+        assertEquals(30, first.getValue("age"));
+        assertEquals("Jane", second.getValue("name"));
+        assertEquals(30, second.getValue("age"));
+        assertEquals("Joe", third.getValue("name"));
+        assertEquals(31, third.getValue("age"));
+    }
+
+    public void testReadingSnapshotDoesNotCopy() throws Exception {
+        Map<?,?> data = getData(model);
+        FormSnapshot snapshot = model.snapshot();
+
+        assertEquals("John", snapshot.getValue("name"));
+        assertEquals(2, snapshot.asMap().size());
+        assertEquals("John", model.getValue("name"));
+        model.setValue("name", "John");    // not a change
+        assertSame(data, getData(model));
+
+        // the values are copied once, on the first write after the snapshot
+        model.setValue("name", "Jane");
+        Map<?,?> copy = getData(model);
+        assertNotSame(data, copy);
+        model.setValue("age", 31);
+        assertSame(copy, getData(model));
+    }
+
+    public void testSnapshotIsReadOnly() {
+        FormSnapshot snapshot = model.snapshot();
+        try {
+            snapshot.asMap().put("name", "Jane");
+            fail("expected the snapshot to be read-only");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals("John", model.getValue("name"));
+    }
+
+    private static Map<?,?> getData(MapFormModel model) throws Exception {
+        Field field = MapFormModel.class.getDeclaredField("data");
+        field.setAccessible(true);
+        return (Map<?,?>) field.get(model);
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.dkharrat.nexusdialog;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class TypedFormModelTest extends TestCase {
+    private FormSchema schema;
+    private TypedFormModel model;
+    private List<String> changes;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        schema = new FormSchema();
+        schema.addField("age");
+        schema.addField("birthday");
+        model = new TypedFormModel(schema);
+        changes = new ArrayList<String>();
+        model.addFieldChangeListener(new FieldChangeListener() {
+            @Override public void onFieldChanged(String fieldName, Object oldValue, Object newValue) {
+                changes.add(fieldName + ": " + oldValue + " -> " + newValue);
+            }
+        });
+    }
+
+    public void testSetValueBySlotStoresTypedValue() {
+        int age = schema.getSlot("age");
+        model.setValue(age, 30);
+
+        assertEquals(TypedFormModel.TYPE_INT, model.getType(age));
+        assertEquals(30, model.getInt(age, -1));
+        assertEquals(30, model.getValue("age"));
+
+        Date birthday = new Date(86400000L);
+        model.setValue(schema.getSlot("birthday"), birthday);
+        assertEquals(TypedFormModel.TYPE_DATE, model.getType(schema.getSlot("birthday")));
+        assertEquals(birthday, model.getValue("birthday"));
+    }
+
+    public void testSetValueBySlotNotifiesLikeSetValueByName() {
+        int age = schema.getSlot("age");
+        model.setValue(age, 30);
+        model.setValue(age, 30);
+        model.setValue("age", 31);
+        model.setValue(age, null);
+
+        assertEquals(3, changes.size());
+        assertEquals("age: null -> 30", changes.get(0));
+        assertEquals("age: 30 -> 31", changes.get(1));
+        assertEquals("age: 31 -> null", changes.get(2));
+    }
+}
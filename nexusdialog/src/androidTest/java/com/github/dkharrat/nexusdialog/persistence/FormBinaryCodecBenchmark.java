@@ -0,0 +1,108 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import android.test.AndroidTestCase;
+
+import com.github.dkharrat.nexusdialog.Benchmarks;
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.FormModel;
+import com.github.dkharrat.nexusdialog.MapFormModel;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+import com.github.dkharrat.nexusdialog.controllers.DatePickerController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.ValueController;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+
+/**
+ * Measures the cost of encoding and decoding the values of large forms in the binary format.
+ */
+public class FormBinaryCodecBenchmark extends AndroidTestCase {
+    public void testEncode1000Fields() {
+        measureEncode(1000, 500);
+    }
+
+    public void testEncode5000Fields() {
+        measureEncode(5000, 100);
+    }
+
+    public void testDecode1000Fields() {
+        measureDecode(1000, 500, false);
+    }
+
+    public void testDecode5000Fields() {
+        measureDecode(5000, 100, false);
+    }
+
+    public void testDecode5000FieldsFromDirectBuffer() {
+        measureDecode(5000, 100, true);
+    }
+
+    private void measureEncode(int fields, int iterations) {
+        FormController controller = createForm(fields);
+        final FormModel model = controller.getModel();
+        final FormBinaryCodec codec = new FormBinaryCodec(controller);
+
+        Benchmarks.measure("FormBinaryCodec.encode of " + fields + " fields", iterations, new Runnable() {
+            @Override public void run() {
+                codec.encode(model);
+            }
+        });
+    }
+
+    private void measureDecode(int fields, int iterations, boolean direct) {
+        FormController controller = createForm(fields);
+        final FormBinaryCodec codec = new FormBinaryCodec(controller);
+        byte[] record = codec.encode(controller.getModel());
+        final ByteBuffer buffer;
+        if (direct) {
+            buffer = ByteBuffer.allocateDirect(record.length);
+            buffer.put(record);
+            buffer.flip();
+        } else {
+            buffer = ByteBuffer.wrap(record);
+        }
+
+        Benchmarks.measure("FormBinaryCodec.decode of " + fields + " fields (" + record.length + " bytes"
+                + (direct ? ", direct buffer" : "") + ")", iterations, new Runnable() {
+            @Override public void run() {
+                codec.decode(buffer);
+            }
+        });
+    }
+
+    /**
+     * Creates a form with the given number of fields, with a mix of the value types stored by the built-in elements.
+     */
+    private FormController createForm(int fields) {
+        FormModel model = new MapFormModel();
+        FormController controller = new FormController(getContext(), model);
+        FormSectionController section = new FormSectionController(getContext(), "section", "Section");
+        for (int i = 0; i < fields; i++) {
+            String name = "field" + i;
+            switch (i % 4) {
+                case 0:
+                    section.addElement(new ValueController(getContext(), name, name));
+                    model.setValue(name, "Value of field " + i);
+                    break;
+                case 1:
+                    section.addElement(new ValueController(getContext(), name, name));
+                    model.setValue(name, i);
+                    break;
+                case 2:
+                    section.addElement(new DatePickerController(getContext(), name, name));
+                    model.setValue(name, new Date(1400000000000L + i * 86400000L));
+                    break;
+                default:
+                    section.addElement(new CheckBoxController(getContext(), name, name, false,
+                            Arrays.asList("A", "B", "C"), true));
+                    model.setValue(name, new HashSet<Object>(Arrays.<Object>asList("A", "C")));
+                    break;
+            }
+        }
+        controller.addSection(section);
+        return controller;
+    }
+}
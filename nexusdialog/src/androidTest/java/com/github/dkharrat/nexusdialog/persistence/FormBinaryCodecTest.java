@@ -0,0 +1,206 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import android.test.AndroidTestCase;
+
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.MapFormModel;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+import com.github.dkharrat.nexusdialog.controllers.DatePickerController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.ValueController;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FormBinaryCodecTest extends AndroidTestCase {
+    // more fields than fit in a single-byte field header, and more items than fit in a long bitmap
+    private static final int VALUE_FIELDS = 100;
+    private static final int CHECKBOX_ITEMS = 70;
+
+    private FormController controller;
+    private MapFormModel model;
+    private FormBinaryCodec codec;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new MapFormModel();
+        controller = new FormController(getContext(), model);
+        FormSectionController section = new FormSectionController(getContext(), "section", "Section");
+        for (int i = 0; i < VALUE_FIELDS; i++) {
+            section.addElement(new ValueController(getContext(), "field" + i, "Field " + i));
+        }
+        section.addElement(new DatePickerController(getContext(), "date1", "Date 1"));
+        section.addElement(new DatePickerController(getContext(), "date2", "Date 2"));
+        section.addElement(new DatePickerController(getContext(), "date3", "Date 3"));
+
+        List<String> items = new ArrayList<String>();
+        for (int i = 0; i < CHECKBOX_ITEMS; i++) {
+            items.add("Item " + i);
+        }
+        section.addElement(new CheckBoxController(getContext(), "choices", "Choices", false, items, true));
+        section.addElement(new CheckBoxController(getContext(), "indices", "Indices", false, items, false));
+        controller.addSection(section);
+        codec = new FormBinaryCodec(controller);
+    }
+
+    public void testRoundTripNumbers() {
+        model.setValue("field0", -1);
+        model.setValue("field1", Integer.MIN_VALUE);
+        model.setValue("field2", Integer.MAX_VALUE);
+        model.setValue("field3", Long.MIN_VALUE);
+        model.setValue("field4", Long.MAX_VALUE);
+        model.setValue("field5", -64);
+        model.setValue("field6", 0);
+        model.setValue("field7", -0.0);
+        model.setValue("field8", Double.NaN);
+
+        assertRoundTrip();
+    }
+
+    public void testRoundTripAllFields() {
+        for (int i = 0; i < VALUE_FIELDS; i++) {
+            model.setValue("field" + i, i % 3 == 0 ? "value \u00e9 " + i : i % 3 == 1 ? (Object) (i - 50) : i % 2 == 0);
+        }
+        model.setValue("field99", new ArrayList<Object>(Arrays.<Object>asList("a", 1, null, new Date(5L), 2L)));
+
+        Map<String,Object> values = assertRoundTrip();
+        assertEquals(VALUE_FIELDS + 5, values.size());
+    }
+
+    public void testOmitsNullFields() {
+        model.setValue("field50", "only");
+        Map<String,Object> values = assertRoundTrip();
+
+        assertEquals("only", values.get("field50"));
+        assertTrue(values.containsKey("field49"));
+        assertNull(values.get("field49"));
+    }
+
+    public void testRoundTripDatesAcrossBaseDate() {
+        // each date is encoded as the difference from the previous one, which starts at the epoch
+        model.setValue("date1", new Date(-86400000L * 365 * 100));
+        model.setValue("date2", new Date(1400000000000L));
+        model.setValue("date3", new Date(-1L));
+        assertRoundTrip();
+
+        model.setValue("date1", new Date(Long.MAX_VALUE));
+        model.setValue("date2", new Date(Long.MIN_VALUE));
+        model.setValue("date3", new Date(0L));
+        assertRoundTrip();
+    }
+
+    public void testRoundTripBitmaps() {
+        model.setValue("choices", new HashSet<Object>(Arrays.<Object>asList("Item 0", "Item 63", "Item 64", "Item 69")));
+        model.setValue("indices", new HashSet<Object>(Arrays.<Object>asList(7, 8, 65)));
+        assertRoundTrip();
+
+        model.setValue("choices", new HashSet<Object>());
+        // not an item of the field, so it can't be written as a bitmap
+        model.setValue("indices", new HashSet<Object>(Arrays.<Object>asList(7, 70)));
+        assertRoundTrip();
+    }
+
+    public void testTruncatedRecordFails() {
+        populate();
+        byte[] record = codec.encode(model);
+        for (int length = 0; length < record.length; length++) {
+            Map<String,Object> values;
+            try {
+                values = codec.decode(ByteBuffer.wrap(record, 0, length));
+            } catch (IllegalArgumentException expected) {
+                continue;
+            }
+            // a record can only be cut after a whole field, which then decodes as missing
+            assertFalse(model.getValue("choices").equals(values.get("choices")));
+        }
+    }
+
+    public void testCorruptRecordFailsWithIllegalArgumentException() {
+        populate();
+        byte[] record = codec.encode(model);
+        for (int i = 0; i < record.length; i++) {
+            for (int bits : new int[] {0x01, 0x80, 0xff}) {
+                byte[] corrupt = record.clone();
+                corrupt[i] ^= bits;
+                try {
+                    codec.decode(ByteBuffer.wrap(corrupt));
+                } catch (IllegalArgumentException expected) {
+                }
+            }
+        }
+    }
+
+    public void testOversizedLengthFails() {
+        byte[] record = codec.encode(model);
+        ByteBuffer buffer = ByteBuffer.allocate(record.length + 12);
+        buffer.put(record);
+        buffer.put((byte) ((0 << 4) | 1));     // a string in the first field
+        for (int i = 0; i < 9; i++) {
+            buffer.put((byte) 0xff);            // a length with the sign bit set
+        }
+        buffer.put((byte) 0x01);
+        buffer.flip();
+        try {
+            codec.decode(buffer);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testRecordOfDifferentFormFails() {
+        FormController other = new FormController(getContext(), new MapFormModel());
+        FormSectionController section = new FormSectionController(getContext(), "section", "Section");
+        section.addElement(new ValueController(getContext(), "other", "Other"));
+        other.addSection(section);
+
+        try {
+            codec.decode(ByteBuffer.wrap(new FormBinaryCodec(other).encode(model)));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testDecodeFromDirectBuffer() {
+        populate();
+        byte[] record = codec.encode(model);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(record.length + 3);
+        buffer.position(3);
+        buffer.put(record);
+        buffer.position(3);
+
+        assertValues(codec.decode(buffer));
+        assertEquals(3, buffer.position());
+    }
+
+    private void populate() {
+        model.setValue("field0", "text");
+        model.setValue("field1", -12345);
+        model.setValue("field70", 2.5);
+        model.setValue("date1", new Date(-5000L));
+        model.setValue("date2", new Date(1400000000000L));
+        model.setValue("choices", new HashSet<Object>(Arrays.<Object>asList("Item 1", "Item 66")));
+    }
+
+    private Map<String,Object> assertRoundTrip() {
+        Map<String,Object> values = codec.decode(ByteBuffer.wrap(codec.encode(model)));
+        assertValues(values);
+        return values;
+    }
+
+    private void assertValues(Map<String,Object> values) {
+        for (Map.Entry<String,Object> entry : values.entrySet()) {
+            Object expected = model.getValue(entry.getKey());
+            assertEquals(entry.getKey(), expected, entry.getValue());
+            if (expected instanceof Set) {
+                assertTrue(entry.getValue() instanceof Set);
+            }
+        }
+    }
+}
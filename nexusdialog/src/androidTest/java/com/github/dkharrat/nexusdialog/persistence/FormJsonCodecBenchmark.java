@@ -0,0 +1,107 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import android.test.AndroidTestCase;
+
+import com.github.dkharrat.nexusdialog.Benchmarks;
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.FormModel;
+import com.github.dkharrat.nexusdialog.MapFormModel;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+import com.github.dkharrat.nexusdialog.controllers.DatePickerController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.ValueController;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+
+/**
+ * Measures the cost of writing and reading the values of large forms as JSON.
+ */
+public class FormJsonCodecBenchmark extends AndroidTestCase {
+    public void testWrite1000Fields() throws IOException {
+        measureWrite(1000, 200);
+    }
+
+    public void testWrite5000Fields() throws IOException {
+        measureWrite(5000, 40);
+    }
+
+    public void testRead1000Fields() throws IOException {
+        measureRead(1000, 200);
+    }
+
+    public void testRead5000Fields() throws IOException {
+        measureRead(5000, 40);
+    }
+
+    private void measureWrite(int fields, int iterations) throws IOException {
+        final FormController controller = createForm(fields);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Benchmarks.measure("FormJsonCodec.write of " + fields + " fields", iterations, new Runnable() {
+            @Override public void run() {
+                out.reset();
+                try {
+                    FormJsonCodec.write(controller, out);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+    }
+
+    private void measureRead(int fields, int iterations) throws IOException {
+        final FormController controller = createForm(fields);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FormJsonCodec.write(controller, out);
+        final byte[] json = out.toByteArray();
+
+        Benchmarks.measure("FormJsonCodec.readValues of " + fields + " fields (" + json.length + " bytes)", iterations,
+                new Runnable() {
+                    @Override public void run() {
+                        try {
+                            FormJsonCodec.readValues(controller, new ByteArrayInputStream(json));
+                        } catch (IOException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Creates a form with the given number of fields, with a mix of the value types stored by the built-in elements.
+     */
+    private FormController createForm(int fields) {
+        FormModel model = new MapFormModel();
+        FormController controller = new FormController(getContext(), model);
+        FormSectionController section = new FormSectionController(getContext(), "section", "Section");
+        for (int i = 0; i < fields; i++) {
+            String name = "field" + i;
+            switch (i % 4) {
+                case 0:
+                    section.addElement(new ValueController(getContext(), name, name));
+                    model.setValue(name, "Value of field " + i);
+                    break;
+                case 1:
+                    section.addElement(new ValueController(getContext(), name, name));
+                    model.setValue(name, i);
+                    break;
+                case 2:
+                    section.addElement(new DatePickerController(getContext(), name, name));
+                    model.setValue(name, new Date(1400000000000L + i * 86400000L));
+                    break;
+                default:
+                    section.addElement(new CheckBoxController(getContext(), name, name, false,
+                            Arrays.asList("A", "B", "C"), true));
+                    model.setValue(name, new HashSet<Object>(Arrays.<Object>asList("A", "C")));
+                    break;
+            }
+        }
+        controller.addSection(section);
+        return controller;
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import android.test.AndroidTestCase;
+
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.MapFormModel;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+import com.github.dkharrat.nexusdialog.controllers.DatePickerController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.ValueController;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+
+public class FormJsonCodecTest extends AndroidTestCase {
+    private FormController controller;
+    private MapFormModel model;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new MapFormModel();
+        controller = new FormController(getContext(), model);
+        FormSectionController section = new FormSectionController(getContext(), "section", "Section");
+        section.addElement(new ValueController(getContext(), "text", "Text"));
+        section.addElement(new ValueController(getContext(), "integer", "Integer"));
+        section.addElement(new ValueController(getContext(), "long", "Long"));
+        section.addElement(new ValueController(getContext(), "double", "Double"));
+        section.addElement(new ValueController(getContext(), "flag", "Flag"));
+        section.addElement(new ValueController(getContext(), "empty", "Empty"));
+        section.addElement(new DatePickerController(getContext(), "date", "Date"));
+        section.addElement(new CheckBoxController(getContext(), "choices", "Choices", false,
+                Arrays.asList("A", "B", "C"), Arrays.<Object>asList(1, 2, 3)));
+        controller.addSection(section);
+    }
+
+    public void testRoundTrip() throws IOException {
+        char[] longText = new char[3000];
+        Arrays.fill(longText, '\u00e9');
+        model.setValue("text", "line\nbreak \"quoted\" \\ \u0001 " + new String(longText));
+        model.setValue("integer", 42);
+        model.setValue("long", 1L << 40);
+        model.setValue("double", -0.25);
+        model.setValue("flag", true);
+        model.setValue("date", new Date(1234567890123L));
+        model.setValue("choices", new HashSet<Object>(Arrays.<Object>asList(1, 3)));
+
+        Map<String,Object> values = FormJsonCodec.readValues(controller, new ByteArrayInputStream(write()));
+
+        assertEquals(8, values.size());
+        for (String name : values.keySet()) {
+            assertEquals(name, model.getValue(name), values.get(name));
+        }
+    }
+
+    public void testUnknownPropertiesAreSkipped() throws IOException {
+        String json = "{\"unknown\": {\"nested\": [1, {\"a\": [true, null]}]}, \"integer\": 7, \"other\": [[]]}";
+        Map<String,Object> values = FormJsonCodec.readValues(controller, new ByteArrayInputStream(json.getBytes("UTF-8")));
+
+        assertEquals(1, values.size());
+        assertEquals(7, values.get("integer"));
+    }
+
+    public void testMalformedInputFailsWithIOException() {
+        String[] documents = {
+                "", "[]", "{\"integer\": 1", "{\"integer\" 1}", "{\"integer\": \"a}", "{\"date\": 1.5}",
+                "{\"integer\": 1-2}", "{\"choices\": [1,]}"
+        };
+        for (String document : documents) {
+            try {
+                FormJsonCodec.readValues(controller, new ByteArrayInputStream(document.getBytes("UTF-8")));
+                fail("Expected IOException for " + document);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    private byte[] write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FormJsonCodec.write(controller, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import com.github.dkharrat.nexusdialog.Benchmarks;
+import com.github.dkharrat.nexusdialog.MapFormModel;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Measures the cost of recording changes on the main thread, of writing them to disk, and of recovering a draft.
+ */
+public class FormModelJournalBenchmark extends TestCase {
+    private static final int FIELDS = 50;
+    private static final int CHANGES_PER_FLUSH = 20;
+    private static final int RESTORE_FIELDS = 5000;
+
+    private File file;
+    private FormModelJournal journal;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("benchmark", ".journal");
+        assertTrue(file.delete());
+        journal = new FormModelJournal(file);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        journal.close();
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testRecordChange() {
+        final MapFormModel model = new MapFormModel();
+        journal.attach(model);
+
+        Benchmarks.measure("FormModelJournal record (setValue)", 20000, new Runnable() {
+            int i;
+            @Override public void run() {
+                model.setValue("field" + (i % FIELDS), "value " + i++);
+            }
+        });
+    }
+
+    public void testFlush() {
+        final MapFormModel model = new MapFormModel();
+        journal.attach(model);
+
+        Benchmarks.measure("FormModelJournal flush of " + CHANGES_PER_FLUSH + " changes", 100, new Runnable() {
+            int i;
+            @Override public void run() {
+                for (int change = 0; change < CHANGES_PER_FLUSH; change++) {
+                    model.setValue("field" + (i % FIELDS), "value " + i++);
+                }
+                journal.flush();
+            }
+        });
+    }
+
+    public void testRestore() throws IOException {
+        MapFormModel model = new MapFormModel();
+        journal.attach(model);
+        // two changes per field: the journal is only compacted once it holds more than twice as many records as fields
+        for (int i = 0; i < 2 * RESTORE_FIELDS; i++) {
+            model.setValue("field" + (i % RESTORE_FIELDS), "value " + i);
+        }
+        journal.flush();
+        journal.detach();
+
+        Benchmarks.measure("FormModelJournal restore of " + (2 * RESTORE_FIELDS) + " records", 20, new Runnable() {
+            @Override public void run() {
+                try {
+                    journal.restore(new MapFormModel());
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        MapFormModel restored = new MapFormModel();
+        journal.restore(restored);
+        assertEquals("value " + (2 * RESTORE_FIELDS - 1), restored.getValue("field" + (RESTORE_FIELDS - 1)));
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import com.github.dkharrat.nexusdialog.MapFormModel;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+
+public class FormModelJournalTest extends TestCase {
+    private File file;
+    private FormModelJournal journal;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("form", ".journal");
+        assertTrue(file.delete());
+        journal = new FormModelJournal(file);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        journal.close();
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testRestoresRecordedChanges() throws IOException {
+        MapFormModel model = new MapFormModel();
+        journal.attach(model);
+        model.setValue("name", "Jo");
+        model.setValue("name", "John");
+        model.setValue("age", 30);
+        model.setValue("birthDate", new Date(123456789L));
+        model.setValue("tags", new HashSet<Object>(Arrays.asList("a", "b")));
+        journal.flush();
+
+        MapFormModel restored = restore();
+        assertEquals("John", restored.getValue("name"));
+        assertEquals(30, restored.getValue("age"));
+        assertEquals(new Date(123456789L), restored.getValue("birthDate"));
+        assertEquals(new HashSet<Object>(Arrays.asList("a", "b")), restored.getValue("tags"));
+    }
+
+    public void testRestoreStopsAtTruncatedRecord() throws IOException {
+        writeJournal("first", "second");
+        long length = file.length();
+        setFileLength(length - 1);
+
+        MapFormModel restored = restore();
+        assertEquals("first", restored.getValue("first"));
+        assertNull(restored.getValue("second"));
+        assertTrue(file.length() < length - 1);
+    }
+
+    public void testRestoreStopsAtNegativeRecordLength() throws IOException {
+        long secondRecordOffset = writeJournal("first", "second");
+        overwriteInt(secondRecordOffset, -1);
+
+        assertRestoresOnlyFirstRecord(secondRecordOffset);
+    }
+
+    public void testRestoreStopsAtRecordLongerThanJournal() throws IOException {
+        long secondRecordOffset = writeJournal("first", "second");
+        overwriteInt(secondRecordOffset, Integer.MAX_VALUE);
+
+        assertRestoresOnlyFirstRecord(secondRecordOffset);
+    }
+
+    public void testRestoreStopsAtCorruptRecord() throws IOException {
+        long secondRecordOffset = writeJournal("first", "second");
+        // the length of the field name, within the record
+        overwriteInt(secondRecordOffset + 4, -1000);
+
+        assertRestoresOnlyFirstRecord(secondRecordOffset);
+    }
+
+    public void testRestoreStopsAtUnknownValueTag() throws IOException {
+        long secondRecordOffset = writeJournal("first", "second");
+        // the tag of the value follows the length and bytes of the field name
+        overwriteByte(secondRecordOffset + 4 + 4 + "second".length(), 99);
+
+        assertRestoresOnlyFirstRecord(secondRecordOffset);
+    }
+
+    public void testRecordsAfterRecoveryAreRestored() throws IOException {
+        long secondRecordOffset = writeJournal("first", "second");
+        overwriteInt(secondRecordOffset, -1);
+
+        MapFormModel model = restore();
+        journal.attach(model);
+        model.setValue("third", "third");
+        journal.flush();
+
+        MapFormModel restored = restore();
+        assertEquals("first", restored.getValue("first"));
+        assertNull(restored.getValue("second"));
+        assertEquals("third", restored.getValue("third"));
+    }
+
+    public void testClearDiscardsJournal() throws IOException {
+        writeJournal("first");
+        journal.clear();
+        journal.flush();
+
+        assertFalse(file.exists());
+        assertNull(restore().getValue("first"));
+    }
+
+    private void assertRestoresOnlyFirstRecord(long secondRecordOffset) throws IOException {
+        MapFormModel restored = restore();
+        assertEquals("first", restored.getValue("first"));
+        assertNull(restored.getValue("second"));
+        assertEquals(secondRecordOffset, file.length());
+    }
+
+    /**
+     * Journals one change per field, using the name of the field as its value.
+     *
+     * @return the offset of the last record in the journal
+     */
+    private long writeJournal(String... fields) {
+        MapFormModel model = new MapFormModel();
+        journal.attach(model);
+        long lastRecordOffset = 0;
+        for (String field : fields) {
+            journal.flush();
+            lastRecordOffset = file.exists() ? file.length() : 4;
+            model.setValue(field, field);
+        }
+        journal.flush();
+        journal.detach();
+        return lastRecordOffset;
+    }
+
+    private MapFormModel restore() throws IOException {
+        MapFormModel model = new MapFormModel();
+        journal.restore(model);
+        return model;
+    }
+
+    private void setFileLength(long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void overwriteInt(long offset, int value) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(offset);
+            raf.writeInt(value);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void overwriteByte(long offset, int value) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(offset);
+            raf.writeByte(value);
+        } finally {
+            raf.close();
+        }
+    }
+}
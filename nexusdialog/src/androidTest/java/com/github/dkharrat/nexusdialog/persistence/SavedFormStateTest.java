@@ -0,0 +1,78 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import com.github.dkharrat.nexusdialog.MapFormModel;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class SavedFormStateTest extends TestCase {
+    private static final List<String> FIELDS = Arrays.asList("name", "age", "birthDate", "tags");
+
+    private MapFormModel model;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        model = new MapFormModel();
+        model.setValue("name", "John");
+        model.setValue("age", 30);
+        model.setValue("birthDate", new Date(123456789L));
+        model.setValue("tags", new HashSet<Object>(Arrays.asList("a", "b")));
+    }
+
+    public void testRoundTrip() throws IOException {
+        Map<String,Object> values = SavedFormState.fromByteArray(SavedFormState.toByteArray(model, FIELDS));
+
+        assertEquals(4, values.size());
+        for (String field : FIELDS) {
+            assertEquals(model.getValue(field), values.get(field));
+        }
+    }
+
+    public void testNegativeLengthFailsWithIOException() {
+        byte[] data = SavedFormState.toByteArray(model, Arrays.asList("name"));
+        // the length of the first string of the table, encoded as a 5-byte varint of -1
+        byte[] corrupt = new byte[data.length + 4];
+        corrupt[0] = data[0];
+        corrupt[1] = data[1];
+        corrupt[2] = (byte)0xff;
+        corrupt[3] = (byte)0xff;
+        corrupt[4] = (byte)0xff;
+        corrupt[5] = (byte)0xff;
+        corrupt[6] = (byte)0x0f;
+        assertInvalid(corrupt);
+    }
+
+    public void testLengthBeyondDataFailsWithIOException() {
+        byte[] data = SavedFormState.toByteArray(model, FIELDS);
+        // the number of strings in the table
+        data[1] = (byte)0x7f;
+        assertInvalid(data);
+    }
+
+    public void testTruncatedDataFailsWithIOException() {
+        byte[] data = SavedFormState.toByteArray(model, FIELDS);
+        for (int length = 0; length < data.length; length++) {
+            assertInvalid(Arrays.copyOf(data, length));
+        }
+    }
+
+    public void testOversizedDataFailsWithIOException() {
+        assertInvalid(new byte[SavedFormState.MAX_BUNDLE_SIZE + 1]);
+    }
+
+    private static void assertInvalid(byte[] data) {
+        try {
+            SavedFormState.fromByteArray(data);
+            fail("expected an IOException for " + data.length + " bytes");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
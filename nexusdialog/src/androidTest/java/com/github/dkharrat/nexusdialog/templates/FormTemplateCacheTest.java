@@ -0,0 +1,66 @@
+package com.github.dkharrat.nexusdialog.templates;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class FormTemplateCacheTest extends TestCase {
+    private static final String DEFINITION_A = "{\"sections\": [{\"elements\": [{\"type\": \"text\", \"name\": \"a\"}]}]}";
+    private static final String DEFINITION_B = "{\"sections\": [{\"elements\": [{\"type\": \"text\", \"name\": \"b\"}]}]}";
+    private static final String DEFINITION_C = "{\"sections\": [{\"elements\": [{\"type\": \"text\", \"name\": \"c\"}]}]}";
+
+    public void testHitsAndMisses() throws IOException {
+        FormTemplateCache cache = new FormTemplateCache(4);
+
+        FormTemplate template = cache.get(DEFINITION_A);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertSame(template, cache.get(DEFINITION_A));
+        assertSame(template, cache.get(new ByteArrayInputStream(DEFINITION_A.getBytes("UTF-8"))));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertNotSame(template, cache.get(DEFINITION_B));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        FormTemplateCache cache = new FormTemplateCache(2);
+        FormTemplate templateA = cache.get(DEFINITION_A);
+        cache.get(DEFINITION_B);
+        cache.get(DEFINITION_A);
+        cache.get(DEFINITION_C);     // evicts B
+
+        assertEquals(2, cache.size());
+        assertSame(templateA, cache.get(DEFINITION_A));
+        int misses = cache.getMissCount();
+        cache.get(DEFINITION_B);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    public void testInvalidDefinitionIsNotCached() {
+        FormTemplateCache cache = new FormTemplateCache(2);
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get("{\"sections\": {}}");
+                fail("Expected IOException");
+            } catch (IOException expected) {
+            }
+        }
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    public void testClear() throws IOException {
+        FormTemplateCache cache = new FormTemplateCache(2);
+        cache.get(DEFINITION_A);
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.get(DEFINITION_A);
+        assertEquals(2, cache.getMissCount());
+    }
+}
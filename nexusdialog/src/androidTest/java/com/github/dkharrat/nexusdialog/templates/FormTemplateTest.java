@@ -0,0 +1,71 @@
+package com.github.dkharrat.nexusdialog.templates;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+
+public class FormTemplateTest extends TestCase {
+    private static final String DEFINITION = "{\"version\": 2, \"sections\": [{\"title\": \"Personal Info\", \"elements\": ["
+            + "{\"type\": \"text\", \"name\": \"firstName\", \"label\": \"First Name\", \"required\": true, \"inputType\": 1},"
+            + "{\"type\": \"selection\", \"name\": \"gender\", \"items\": [\"Male\", \"Female\"], \"values\": [1, 2.5]},"
+            + "{\"type\": \"date\", \"name\": \"dateOfBirth\", \"extra\": {\"nested\": [1, {\"a\": null}]}}"
+            + "]}, {\"name\": \"other\", \"elements\": [{\"type\": \"value\", \"name\": \"notes\"}]}]}";
+
+    public void testParse() throws IOException {
+        FormTemplate template = FormTemplate.parse(DEFINITION);
+        assertEquals(4, template.getNumberOfElements());
+    }
+
+    public void testParseEmptyDefinition() throws IOException {
+        assertEquals(0, FormTemplate.parse("{}").getNumberOfElements());
+    }
+
+    public void testDuplicateNamesAreInvalid() {
+        assertInvalid("{\"sections\": [{\"elements\": [{\"type\": \"text\", \"name\": \"a\"}, {\"type\": \"text\", \"name\": \"a\"}]}]}");
+        assertInvalid("{\"sections\": [{\"name\": \"a\", \"elements\": [{\"type\": \"text\", \"name\": \"a\"}]}]}");
+    }
+
+    public void testInvalidElementsAreInvalid() {
+        assertInvalid(element("{\"type\": \"unknown\", \"name\": \"a\"}"));
+        assertInvalid(element("{\"type\": \"text\"}"));
+        assertInvalid(element("{\"type\": \"selection\", \"name\": \"a\"}"));
+        assertInvalid(element("{\"type\": \"checkbox\", \"name\": \"a\", \"items\": [\"x\"], \"values\": [1, 2]}"));
+        assertInvalid(element("{\"type\": \"date\", \"name\": \"a\", \"format\": \"qqq\"}"));
+    }
+
+    public void testWrongTypesAreInvalid() {
+        assertInvalid(element("{\"type\": \"text\", \"name\": \"a\", \"required\": \"yes\"}"));
+        assertInvalid(element("{\"type\": \"selection\", \"name\": \"a\", \"items\": [null]}"));
+        assertInvalid(element("{\"type\": \"selection\", \"name\": \"a\", \"items\": \"x\"}"));
+        assertInvalid(element("{\"type\": 1, \"name\": \"a\"}"));
+        assertInvalid("{\"sections\": {}}");
+        assertInvalid("[]");
+    }
+
+    public void testInvalidNumbersAreInvalid() {
+        assertInvalid(element("{\"type\": \"text\", \"name\": \"a\", \"inputType\": 4294967296}"));
+        assertInvalid(element("{\"type\": \"text\", \"name\": \"a\", \"inputType\": 1.5}"));
+        assertInvalid(element("{\"type\": \"text\", \"name\": \"a\", \"inputType\": \"1\"}"));
+        assertInvalid(element("{\"type\": \"text\", \"name\": \"a\", \"inputType\": 1-2}"));
+        assertInvalid(element("{\"type\": \"selection\", \"name\": \"a\", \"items\": [\"x\"], \"values\": [1-2]}"));
+    }
+
+    public void testMalformedDefinitionIsInvalid() {
+        assertInvalid("");
+        assertInvalid("{\"sections\": [");
+        assertInvalid("{\"sections\": []} {}");
+        assertInvalid("{\"sections\" []}");
+    }
+
+    private static String element(String element) {
+        return "{\"sections\": [{\"elements\": [" + element + "]}]}";
+    }
+
+    private static void assertInvalid(String definition) {
+        try {
+            FormTemplate.parse(definition);
+            fail("Expected IOException for " + definition);
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.dkharrat.nexusdialog.utils;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+public class JsonStreamTest extends TestCase {
+    // longer than the reader's buffer, so that tokens cross its boundary
+    private static final int LONG_LENGTH = 3000;
+
+    public void testRoundTripEscapes() throws IOException {
+        String value = "quote \" backslash \\ slash / \b\f\n\r\t control \u0001 unicode \u00e9\u4e2d \ud83d\ude00";
+        assertEquals(value, roundTrip(value));
+    }
+
+    public void testReadUnicodeEscapes() throws IOException {
+        JsonStreamReader reader = reader("[\"\\u0041\\u00e9\\u4E2D\\/\"]");
+        reader.beginArray();
+        assertEquals("A\u00e9\u4e2d/", reader.nextString());
+        reader.endArray();
+        assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    public void testRoundTripLongStrings() throws IOException {
+        for (int offset = 0; offset < 8; offset++) {
+            char[] chars = new char[LONG_LENGTH + offset];
+            Arrays.fill(chars, 'x');
+            // escapes around the buffer boundary, so that an escape sequence is split between two reads
+            for (int i = 1010; i < 1030; i += 3) {
+                chars[i] = i % 2 == 0 ? '"' : '\u00e9';
+            }
+            String value = new String(chars);
+            assertEquals(value, roundTrip(value));
+        }
+    }
+
+    public void testLiteralsAcrossBufferBoundary() throws IOException {
+        for (int padding = 1000; padding < 1030; padding++) {
+            char[] spaces = new char[padding];
+            Arrays.fill(spaces, ' ');
+            JsonStreamReader reader = reader("[" + new String(spaces) + "1234567890123, true, null, -1.5e3]");
+            reader.beginArray();
+            assertEquals(1234567890123L, reader.nextLong());
+            assertTrue(reader.nextBoolean());
+            reader.nextNull();
+            assertEquals(-1500.0, reader.nextDouble());
+            reader.endArray();
+            assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+        }
+    }
+
+    public void testRoundTripValues() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(out);
+        writer.beginObject();
+        writer.name("long").value(Long.MIN_VALUE);
+        writer.name("double").value(0.1);
+        writer.name("boolean").value(false);
+        writer.name("null").nullValue();
+        writer.name("empty").beginArray().endArray();
+        writer.name("object").beginObject().name("a").value("b").endObject();
+        writer.endObject();
+        writer.flush();
+
+        JsonStreamReader reader = reader(out.toString());
+        reader.beginObject();
+        assertEquals("long", reader.nextName());
+        assertEquals(Long.MIN_VALUE, reader.nextLong());
+        assertEquals("double", reader.nextName());
+        assertEquals(0.1, reader.nextDouble());
+        assertEquals("boolean", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        assertEquals("null", reader.nextName());
+        reader.nextNull();
+        assertEquals("empty", reader.nextName());
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("object", reader.nextName());
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        assertEquals("b", reader.nextString());
+        reader.endObject();
+        reader.endObject();
+        assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    public void testSkipNestedValues() throws IOException {
+        JsonStreamReader reader = reader("{\"skipped\": {\"a\": [1, [2, {\"b\": [true, null, \"]}\"]}], {}], \"c\": {}},"
+                + " \"kept\": 3, \"last\": [[[]]]}");
+        reader.beginObject();
+        assertEquals("skipped", reader.nextName());
+        reader.skipValue();
+        assertEquals("kept", reader.nextName());
+        assertEquals(3, reader.nextInt());
+        assertEquals("last", reader.nextName());
+        reader.skipValue();
+        reader.endObject();
+        assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    public void testMalformedInputFailsWithIOException() {
+        String[] documents = {
+                "", "{", "[1,", "[1 2]", "{\"a\" 1}", "{\"a\": 1,}", "{1: 2}", "[\"unterminated]", "[\"\\u12\"]",
+                "[\"\\uzzzz\"]", "[1] [2]", "[x]", "{\"a\": [}"
+        };
+        for (String document : documents) {
+            try {
+                JsonStreamReader reader = reader(document);
+                reader.skipValue();
+                reader.peek();
+                fail("Expected IOException for " + document);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    public void testWrongTypeFailsWithIOException() throws IOException {
+        JsonStreamReader reader = reader("[\"a\", 1.5, 3000000000, 1-2]");
+        reader.beginArray();
+        try {
+            reader.nextBoolean();
+            fail();
+        } catch (IOException expected) {
+        }
+        reader.nextString();
+        try {
+            reader.nextLong();
+            fail();
+        } catch (IOException expected) {
+        }
+        try {
+            reader.nextInt();
+            fail();
+        } catch (IOException expected) {
+        }
+        try {
+            reader.nextDouble();
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private static String roundTrip(String value) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(out);
+        writer.beginArray().value(value).endArray();
+        writer.flush();
+
+        // a reader that returns few characters at a time, to exercise refilling the buffer
+        JsonStreamReader reader = new JsonStreamReader(new ChunkedReader(out.toString(), 1021));
+        reader.beginArray();
+        String result = reader.nextString();
+        reader.endArray();
+        assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+        return result;
+    }
+
+    private static JsonStreamReader reader(String json) {
+        return new JsonStreamReader(new StringReader(json));
+    }
+
+    private static final class ChunkedReader extends Reader {
+        private final String input;
+        private final int chunkSize;
+        private int pos;
+
+        ChunkedReader(String input, int chunkSize) {
+            this.input = input;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (pos == input.length()) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, chunkSize), input.length() - pos);
+            input.getChars(pos, pos + count, buffer, offset);
+            pos += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.dkharrat.nexusdialog.widgets;
+
+import android.content.Context;
+import android.test.AndroidTestCase;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.github.dkharrat.nexusdialog.Benchmarks;
+import com.github.dkharrat.nexusdialog.R;
+
+/**
+ * Measures a measure and layout pass of forms of labeled fields, laid out with {@link FormFieldLayout} and with the
+ * nested <code>LinearLayout</code>s it replaced.
+ */
+public class FormFieldLayoutBenchmark extends AndroidTestCase {
+    private static final int WIDTH = 1080;
+
+    public void testFormFieldLayout100Fields() {
+        measureLayout("FormFieldLayout", createForm(100, false), 200);
+    }
+
+    public void testNestedLayouts100Fields() {
+        measureLayout("nested LinearLayouts", createForm(100, true), 200);
+    }
+
+    public void testFormFieldLayout1000Fields() {
+        measureLayout("FormFieldLayout", createForm(1000, false), 20);
+    }
+
+    public void testNestedLayouts1000Fields() {
+        measureLayout("nested LinearLayouts", createForm(1000, true), 20);
+    }
+
+    public void testFormFieldLayout5000Fields() {
+        measureLayout("FormFieldLayout", createForm(5000, false), 5);
+    }
+
+    public void testNestedLayouts5000Fields() {
+        measureLayout("nested LinearLayouts", createForm(5000, true), 5);
+    }
+
+    private static void measureLayout(String name, final ViewGroup form, int iterations) {
+        Benchmarks.measure("Measure and layout of " + form.getChildCount() + " fields with " + name, iterations,
+                new Runnable() {
+                    int i;
+                    @Override public void run() {
+                        // alternates the width, so that no child can reuse its previous measurement
+                        int width = WIDTH - (i++ & 1);
+                        form.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+                        form.layout(0, 0, form.getMeasuredWidth(), form.getMeasuredHeight());
+                    }
+                });
+    }
+
+    private ViewGroup createForm(int fields, boolean nested) {
+        Context context = getContext();
+        LinearLayout form = new LinearLayout(context);
+        form.setOrientation(LinearLayout.VERTICAL);
+        LayoutInflater inflater = LayoutInflater.from(context);
+        for (int i = 0; i < fields; i++) {
+            EditText field = new EditText(context);
+            field.setText("Value " + i);
+            if (nested) {
+                form.addView(createNestedRow(context, "Field " + i, field));
+            } else {
+                FormFieldLayout row = (FormFieldLayout) inflater.inflate(R.layout.form_labeled_element, form, false);
+                row.setLabel("Field " + i);
+                row.setFieldView(field);
+                form.addView(row);
+            }
+        }
+        return form;
+    }
+
+    /**
+     * Creates the hierarchy that <code>form_labeled_element</code> used before {@link FormFieldLayout}.
+     */
+    private static View createNestedRow(Context context, String label, View field) {
+        LinearLayout row = new LinearLayout(context);
+        row.setOrientation(LinearLayout.HORIZONTAL);
+        row.setGravity(Gravity.CENTER_VERTICAL);
+        row.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        TextView labelView = new TextView(context);
+        labelView.setText(label);
+        int labelWidth = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 100,
+                context.getResources().getDisplayMetrics());
+        row.addView(labelView, new LinearLayout.LayoutParams(labelWidth, ViewGroup.LayoutParams.WRAP_CONTENT, 0));
+
+        LinearLayout column = new LinearLayout(context);
+        column.setOrientation(LinearLayout.VERTICAL);
+        row.addView(column, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        FrameLayout fieldContainer = new FrameLayout(context);
+        fieldContainer.addView(field);
+        column.addView(fieldContainer, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT, 1));
+
+        TextView errorView = new TextView(context);
+        errorView.setVisibility(View.GONE);
+        column.addView(errorView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+        return row;
+    }
+}
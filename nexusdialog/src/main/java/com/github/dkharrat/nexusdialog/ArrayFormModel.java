@@ -0,0 +1,82 @@
+package com.github.dkharrat.nexusdialog;
+
+import java.util.Arrays;
+
+/**
+ * A {@link FormModel} that stores the field values in a flat array, indexed by the slots of a {@link FormSchema}. Field
+ * names are only resolved to slots once, which allows form elements to read and write their value without hashing the
+ * field name on every access. Fields that are not part of the schema yet are added to it when a value is first set.
+ * <p/>
+ * Typically, the schema is created once the form is built:
+ * <pre>
+ *     formController.setModel(new ArrayFormModel(FormSchema.fromForm(formController)));
+ * </pre>
+ */
+public final class ArrayFormModel extends FormModel {
+    private final FormSchema schema;
+    private Object[] values;
+
+    /**
+     * Creates a new model for the fields of the specified schema.
+     *
+     * @param schema    the schema that maps field names to slots
+     */
+    public ArrayFormModel(FormSchema schema) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+    }
+
+    /**
+     * Returns the schema of this model.
+     *
+     * @return the schema of this model
+     */
+    public FormSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the value of the field at the specified slot.
+     *
+     * @param slot  the slot of the field, as returned by {@link FormSchema#getSlot(String)}
+     * @return      the value currently set for the field
+     */
+    public Object getValue(int slot) {
+        return slot < values.length ? values[slot] : null;
+    }
+
+    /**
+     * Sets the value of the field at the specified slot. Listeners are notified the same way as for
+     * {@link #setValue(String, Object)}.
+     *
+     * @param slot      the slot of the field, as returned by {@link FormSchema#getSlot(String)}
+     * @param newValue  the value to set
+     */
+    public void setValue(int slot, Object newValue) {
+        Object curValue = getValue(slot);
+        if (!objectsEqual(curValue, newValue)) {
+            ensureCapacity(slot);
+            values[slot] = newValue;
+            valueChanged(schema.getFieldName(slot), curValue, newValue);
+        }
+    }
+
+    @Override
+    protected Object getBackingValue(String name) {
+        int slot = schema.getSlot(name);
+        return slot >= 0 ? getValue(slot) : null;
+    }
+
+    @Override
+    protected void setBackingValue(String name, Object value) {
+        int slot = schema.addField(name);
+        ensureCapacity(slot);
+        values[slot] = value;
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot >= values.length) {
+            values = Arrays.copyOf(values, Math.max(slot + 1, schema.size()));
+        }
+    }
+}
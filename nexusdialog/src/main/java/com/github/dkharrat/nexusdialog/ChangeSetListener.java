@@ -0,0 +1,19 @@
+package com.github.dkharrat.nexusdialog;
+
+import java.util.Set;
+
+/**
+ * A listener that gets notified once for each set of changes made to a {@link FormModel}. Changes made within a batch
+ * (see {@link FormModel#beginBatch()}) are delivered together when the batch is committed. A change made outside of a
+ * batch is delivered on its own.
+ */
+public interface ChangeSetListener {
+    /**
+     * Called after one or more fields have changed.
+     *
+     * @param fieldNames    the names of the fields whose value changed, in the order they were first changed. The set may
+     *                      be reused by the model, along with its iterators, so it must be copied to be kept after
+     *                      this method returns.
+     */
+    void onFieldsChanged(Set<String> fieldNames);
+}
@@ -0,0 +1,245 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link FormModel} that can be read and written from any thread, such as background threads that sync the form's data
+ * while the user edits it. Values are stored in a {@link ConcurrentHashMap}, so reads never block. Writes hold a short
+ * lock, so that the value a field had before a change is recorded atomically with the change. Fields are spread over
+ * several locks by the hash of their name, so that threads writing different fields rarely contend.
+ * <p/>
+ * Change notifications are always delivered on the main thread, so listeners (including the {@link FormController},
+ * which refreshes the form's views) never run on a background thread. Changes made on a background thread are
+ * conflated per field: listeners are notified once with the value the field had before the first change and its
+ * current value, and all fields changed since the last delivery are notified within a single batch. Changes made on the
+ * main thread are delivered immediately, as with other models.
+ * <p/>
+ * Listeners must be added and removed on the main thread. Batches started on a background thread only apply to the
+ * changes of that thread, whose notifications are posted once the batch is committed.
+ */
+public final class ConcurrentFormModel extends FormModel {
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final ConcurrentMap<String,Object> data = new ConcurrentHashMap<String,Object>();
+    private final Stripe[] stripes;
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean(false);
+    // the values being delivered, which the main thread sees until the delivery is complete; only used on the main thread
+    private Map<String,Object> deliveringValues;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadLocal<int[]> backgroundBatchDepth = new ThreadLocal<int[]>() {
+        @Override protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    private final Runnable deliverPendingChanges = new Runnable() {
+        @Override public void run() {
+            deliverPendingChanges();
+        }
+    };
+
+    /**
+     * The pending changes of the fields whose name hashes to the stripe. The stripe is locked while changing the value of
+     * one of its fields, so that each change is recorded along with it.
+     */
+    private static final class Stripe {
+        // the value each field had when its changes were last delivered to listeners, for fields changed since then
+        final Map<String,Object> pendingOldValues = new HashMap<String,Object>();
+    }
+
+    /**
+     * Creates an empty model.
+     */
+    public ConcurrentFormModel() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an empty model whose fields are spread over the specified number of locks.
+     *
+     * @param stripeCount   the number of locks, which must be a power of two
+     */
+    ConcurrentFormModel(int stripeCount) {
+        if (stripeCount <= 0 || (stripeCount & (stripeCount - 1)) != 0) {
+            throw new IllegalArgumentException("stripeCount must be a power of two: " + stripeCount);
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripeOf(String name) {
+        int hash = name.hashCode();
+        // mixes the higher bits of the hash into the lower ones that select the stripe
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    @Override
+    protected Object getBackingValue(String name) {
+        Map<String,Object> delivering = deliveringValues;
+        if (delivering != null && isMainThread() && delivering.containsKey(name)) {
+            return delivering.get(name);
+        }
+        return data.get(name);
+    }
+
+    @Override
+    protected void setBackingValue(String name, Object value) {
+        Stripe stripe = stripeOf(name);
+        synchronized (stripe) {
+            putLocked(stripe, name, value);
+        }
+
+        Map<String,Object> delivering = deliveringValues;
+        if (delivering != null && isMainThread() && delivering.containsKey(name)) {
+            // changed by a listener during a delivery
+            delivering.put(name, value);
+        }
+    }
+
+    /**
+     * Atomically sets the value of a field if its current value equals the expected value.
+     *
+     * @param name          the field name to set the value for
+     * @param expectedValue the value the field is expected to have
+     * @param newValue      the value to set
+     * @return              true if the value was set, or false if the field's current value differs from the expected one
+     */
+    public boolean compareAndSetValue(String name, Object expectedValue, Object newValue) {
+        Stripe stripe = stripeOf(name);
+        synchronized (stripe) {
+            if (!objectsEqual(data.get(name), expectedValue)) {
+                return false;
+            }
+            if (objectsEqual(expectedValue, newValue)) {
+                return true;
+            }
+            putLocked(stripe, name, newValue);
+        }
+
+        valueChanged(name, expectedValue, newValue);
+        return true;
+    }
+
+    private void putLocked(Stripe stripe, String name, Object value) {
+        Object oldValue = value == null ? data.remove(name) : data.put(name, value);
+        if (!stripe.pendingOldValues.containsKey(name)) {
+            stripe.pendingOldValues.put(name, oldValue);
+        }
+    }
+
+    @Override
+    protected void valueChanged(String name, Object oldValue, Object newValue) {
+        if (isMainThread()) {
+            // delivers the change along with any pending background change of the same field
+            Object deliveredValue;
+            Object currentValue;
+            Stripe stripe = stripeOf(name);
+            synchronized (stripe) {
+                if (!stripe.pendingOldValues.containsKey(name)) {
+                    return;
+                }
+                deliveredValue = stripe.pendingOldValues.remove(name);
+                currentValue = data.get(name);
+            }
+            if (!objectsEqual(deliveredValue, currentValue)) {
+                super.valueChanged(name, deliveredValue, currentValue);
+            }
+        } else if (backgroundBatchDepth.get()[0] == 0) {
+            scheduleDelivery();
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        if (isMainThread()) {
+            super.beginBatch();
+        } else {
+            backgroundBatchDepth.get()[0]++;
+        }
+    }
+
+    @Override
+    public void commit() {
+        if (isMainThread()) {
+            super.commit();
+            return;
+        }
+
+        int[] depth = backgroundBatchDepth.get();
+        if (depth[0] == 0) {
+            throw new IllegalStateException("No batch in progress");
+        }
+        if (--depth[0] == 0) {
+            scheduleDelivery();
+        }
+    }
+
+    @Override
+    public boolean isInBatch() {
+        return isMainThread() ? super.isInBatch() : backgroundBatchDepth.get()[0] > 0;
+    }
+
+    private void scheduleDelivery() {
+        if (deliveryScheduled.compareAndSet(false, true)) {
+            mainHandler.post(deliverPendingChanges);
+        }
+    }
+
+    private void deliverPendingChanges() {
+        // changes made from now on schedule another delivery
+        deliveryScheduled.set(false);
+
+        // the pending changes of each stripe are taken along with the values they are delivered with, so that a change
+        // made right afterwards records exactly the delivered value as its old value
+        Map<String,Object> oldValues = null;
+        Map<String,Object> newValues = null;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.pendingOldValues.isEmpty()) {
+                    continue;
+                }
+                if (oldValues == null) {
+                    oldValues = new HashMap<String,Object>();
+                    newValues = new HashMap<String,Object>();
+                }
+                for (Map.Entry<String,Object> entry : stripe.pendingOldValues.entrySet()) {
+                    oldValues.put(entry.getKey(), entry.getValue());
+                    newValues.put(entry.getKey(), data.get(entry.getKey()));
+                }
+                stripe.pendingOldValues.clear();
+            }
+        }
+        if (oldValues == null) {
+            return;
+        }
+
+        // listeners (and the commit of the batch) read the delivered values, even if a field is changed again meanwhile
+        deliveringValues = newValues;
+        super.beginBatch();
+        try {
+            for (Map.Entry<String,Object> entry : oldValues.entrySet()) {
+                super.valueChanged(entry.getKey(), entry.getValue(), newValues.get(entry.getKey()));
+            }
+        } finally {
+            try {
+                super.commit();
+            } finally {
+                deliveringValues = null;
+            }
+        }
+    }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.dkharrat.nexusdialog;
+
+/**
+ * A listener that gets notified when the value of a field in a {@link FormModel} changes.
+ */
+public interface FieldChangeListener {
+    /**
+     * Called after the value of a field has changed.
+     *
+     * @param fieldName the name of the field that changed
+     * @param oldValue  the previous value of the field
+     * @param newValue  the new value of the field
+     */
+    void onFieldChanged(String fieldName, Object oldValue, Object newValue);
+}
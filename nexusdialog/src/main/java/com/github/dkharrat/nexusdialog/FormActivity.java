@@ -2,9 +2,12 @@ package com.github.dkharrat.nexusdialog;
 
 import android.os.Bundle;
 import android.support.v4.app.FragmentActivity;
+import android.support.v7.widget.RecyclerView;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 
+import com.github.dkharrat.nexusdialog.persistence.SavedFormState;
+
 /**
  * <code>FormActivity</code> is provides a default Activity implementation for using NexusDialog. It provides simple APIs to quickly
  * create and manage form fields. It also handles retaining the <code>FormModel</code> when the Activity is recreated. If you'd like the
@@ -17,23 +20,90 @@ public abstract class FormActivity extends FragmentActivity {
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.form_activity);
+        setContentView(useVirtualizedRendering() ? R.layout.form_recycler : R.layout.form_activity);
 
         getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE
                 | WindowManager.LayoutParams.SOFT_INPUT_STATE_HIDDEN);
 
         this.formModelFragment = FragmentActivityHelper.getFormModelFragment(this);
-        this.formController = new FormController(this, formModelFragment.getModel());
-
-        initForm(formController);
+        FormController retainedController =
+                shouldRetainForm() ? formModelFragment.getFormController(getRetainedFormKey()) : null;
+        if (retainedController != null) {
+            // the form and its model survived a configuration change, so only its views need to be created again
+            this.formController = retainedController;
+            formController.rebind(this);
+        } else {
+            this.formController = new FormController(this, formModelFragment.getModel());
+            initForm(formController);
+            SavedFormState.restore(formController, savedInstanceState, FormModelFragment.STATE_KEY);
+            if (shouldRetainForm()) {
+                formModelFragment.setFormController(getRetainedFormKey(), formController);
+            }
+        }
         recreateViews();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // return pooled views, and don't keep the views of this Activity in a retained form
+        formController.destroyViews();
+        if (shouldRetainForm() && !FragmentActivityHelper.isChangingConfigurations(this)) {
+            formModelFragment.setFormController(getRetainedFormKey(), null);
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        SavedFormState.save(formController, outState, FormModelFragment.STATE_KEY);
+    }
+
     /**
      * An abstract method that must be overridden by subclasses where the form fields are initialized.
      */
     abstract public void initForm(FormController controller);
 
+    /**
+     * Indicates whether the form's elements are kept when the Activity is recreated after a configuration change, such as
+     * a screen rotation. If enabled, {@link #initForm} is only called the first time the Activity is created, and the
+     * same elements are displayed in the recreated Activity, which avoids building large forms again. Elements must then
+     * not hold references to the Activity other than their context. Subclasses can override this method to enable it.
+     * Default is false.
+     */
+    protected boolean shouldRetainForm() {
+        return false;
+    }
+
+    /**
+     * Returns the key the form is retained with when {@link #shouldRetainForm()} is enabled. Default is the name of the
+     * Activity's class.
+     */
+    protected String getRetainedFormKey() {
+        return getClass().getName();
+    }
+
+    /**
+     * Indicates whether the form is displayed in a <code>RecyclerView</code>, where only the views of visible elements are
+     * created. This is recommended for forms with a large number of elements. Subclasses can override this method to enable
+     * it. Default is false.
+     */
+    protected boolean useVirtualizedRendering() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the views of the form are created progressively: the views that fill the first screen are created
+     * immediately, and the remaining ones on the following frames. This is recommended for large forms that are not
+     * displayed with {@link #useVirtualizedRendering()}. Subclasses can override this method to enable it. Default is
+     * false.
+     *
+     * @see FormController#recreateViewsProgressively
+     */
+    protected boolean useProgressiveRendering() {
+        return false;
+    }
+
     /**
      * Returns the associated <code>FormController</code> that manages the form fields.
      */
@@ -63,7 +133,16 @@ public abstract class FormActivity extends FragmentActivity {
      * removed
      */
     protected void recreateViews() {
-        ViewGroup containerView = (ViewGroup) this.findViewById(R.id.form_elements_container);
-        formController.recreateViews(containerView);
+        if (useVirtualizedRendering()) {
+            RecyclerView recyclerView = (RecyclerView) this.findViewById(R.id.form_elements_recycler);
+            formController.recreateViews(recyclerView);
+        } else {
+            ViewGroup containerView = (ViewGroup) this.findViewById(R.id.form_elements_container);
+            if (useProgressiveRendering()) {
+                formController.recreateViewsProgressively(containerView, null);
+            } else {
+                formController.recreateViews(containerView);
+            }
+        }
     }
 }
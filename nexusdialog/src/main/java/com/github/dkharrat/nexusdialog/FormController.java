@@ -1,19 +1,25 @@
 package com.github.dkharrat.nexusdialog;
 
 import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.view.View;
 import android.view.ViewGroup;
 
 import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
 import com.github.dkharrat.nexusdialog.controllers.LabeledFieldController;
 import com.github.dkharrat.nexusdialog.validations.PerFieldValidationErrorDisplay;
+import com.github.dkharrat.nexusdialog.validations.PopUpValidationErrorDisplay;
 import com.github.dkharrat.nexusdialog.validations.ValidationError;
 import com.github.dkharrat.nexusdialog.validations.ValidationErrorDisplay;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -25,9 +31,15 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class FormController {
     private final List<FormSectionController> sectionControllers = new ArrayList<FormSectionController>();
+    private final Map<String,FormElementController> elementsByName = new HashMap<String,FormElementController>();
 
+    private Context context;
     private FormModel model;
     private ValidationErrorDisplay validationErrorDisplay;
+    private ViewPool viewPool;
+    private ProgressiveViewBuilder progressiveViewBuilder;
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler(this);
+    private static final int MAX_GENERATED_VIEW_ID = 0x00FFFFFF;
     private static final AtomicInteger nextGeneratedViewId = new AtomicInteger(1);
 
     /**
@@ -37,10 +49,83 @@ public class FormController {
      * @param formModel     the backing model that stores the fields values. A map-based implementation is provided by {@link MapFormModel}.
      */
     public FormController(Context context, FormModel formModel) {
+        this.context = context;
         this.model = formModel;
         setValidationErrorsDisplayMethod(new PerFieldValidationErrorDisplay(context, this));
     }
 
+    /**
+     * Returns the Android context of this form.
+     *
+     * @return the Android context of this form
+     */
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Moves this form and all its elements to a new context, typically the Activity that was recreated after a
+     * configuration change. This allows the form to be kept across configuration changes instead of building it again,
+     * without leaking the previous Activity.
+     * <p/>
+     * The views of all elements are released, since they belong to the previous context, and are created again by the
+     * next call to <code>recreateViews</code>. Validation errors that were shown are shown again on the new views. The
+     * built-in validation error displays are recreated with the new context; custom displays that hold a context need
+     * to be set again with {@link #setValidationErrorsDisplayMethod}.
+     *
+     * @param context   the new Android context of this form
+     */
+    public void rebind(Context context) {
+        this.context = context;
+        destroyViews();
+        for (FormSectionController section : getSections()) {
+            ((FormElementController)section).setContext(context);
+            for (FormElementController element : section.getElements()) {
+                element.setContext(context);
+            }
+        }
+
+        if (validationErrorDisplay instanceof PerFieldValidationErrorDisplay) {
+            setValidationErrorsDisplayMethod(new PerFieldValidationErrorDisplay(context, this));
+        } else if (validationErrorDisplay instanceof PopUpValidationErrorDisplay) {
+            setValidationErrorsDisplayMethod(new PopUpValidationErrorDisplay(context));
+        }
+    }
+
+    /**
+     * Returns the pool of views that the elements of this form reuse.
+     *
+     * @return the pool of views used by this form, or null if views are not pooled
+     */
+    public ViewPool getViewPool() {
+        return viewPool;
+    }
+
+    /**
+     * Sets the pool of views that the elements of this form reuse, typically the one returned by
+     * {@link ViewPool#getSharedPool}. The pool only applies to views created afterwards. By default, views are not pooled.
+     *
+     * @param viewPool  the pool of views to use, or null to not pool views
+     */
+    public void setViewPool(ViewPool viewPool) {
+        this.viewPool = viewPool;
+    }
+
+    /**
+     * Releases the views of all the sections and elements of this form, e.g. once the Activity displaying them has been
+     * destroyed. Pooled views are returned to the form's {@link ViewPool}. New views are created by the next call to
+     * <code>recreateViews</code>.
+     */
+    public void destroyViews() {
+        cancelProgressiveViewCreation();
+        for (FormSectionController section : getSections()) {
+            ((FormElementController)section).destroyView();
+            for (FormElementController element : section.getElements()) {
+                element.destroyView();
+            }
+        }
+    }
+
     /**
      * Returns the associated model of this form.
      *
@@ -62,8 +147,8 @@ public class FormController {
 
     private void registerFormModelListener() {
         // unregister listener first to make sure we only have one listener registered.
-        getModel().removePropertyChangeListener(modelListener);
-        getModel().addPropertyChangeListener(modelListener);
+        getModel().removeChangeSetListener(modelListener);
+        getModel().addChangeSetListener(modelListener);
     }
 
     /**
@@ -73,13 +158,31 @@ public class FormController {
      * @return the next available view identifier.
      */
     public static int generateViewId(){
+        return generateViewIds(1);
+    }
+
+    /**
+     * Reserves a block of contiguous view IDs, for elements that create several views. The IDs from the returned value up
+     * to the returned value plus <code>count - 1</code> are not returned by any other call until the IDs roll over.
+     *
+     * @param count the number of IDs to reserve
+     * @return      the first ID of the reserved block
+     * @throws IllegalArgumentException if <code>count</code> is not positive, or is larger than the range of IDs
+     */
+    public static int generateViewIds(int count) {
+        if (count < 1 || count > MAX_GENERATED_VIEW_ID) {
+            throw new IllegalArgumentException("Invalid number of view IDs: " + count);
+        }
+
         for (;;) {
             final int result = nextGeneratedViewId.get();
             // aapt-generated IDs have the high byte nonzero; clamp to the range under that.
-            int newValue = result + 1;
-            if (newValue > 0x00FFFFFF) newValue = 1; // Roll over to 1, not 0.
+            int first = result;
+            if (first > MAX_GENERATED_VIEW_ID - count + 1) first = 1; // Roll over to 1, not 0.
+            int newValue = first + count;
+            if (newValue > MAX_GENERATED_VIEW_ID) newValue = 1;
             if (nextGeneratedViewId.compareAndSet(result, newValue)) {
-                return result;
+                return first;
             }
         }
     }
@@ -116,7 +219,17 @@ public class FormController {
      * @param position  the position at which to insert the section
      */
     public void addSection(FormSectionController section, int position) {
+        for (FormElementController element : section.getElements()) {
+            if (elementsByName.containsKey(element.getName())) {
+                throw new IllegalArgumentException("Element with that name already exists");
+            }
+        }
+
         sectionControllers.add(position, section);
+        ((FormElementController)section).setFormController(this);
+        for (FormElementController element : section.getElements()) {
+            onElementAdded(element);
+        }
     }
 
     /**
@@ -136,13 +249,7 @@ public class FormController {
      *              element exists
      */
     public FormElementController getElement(String name) {
-        for (FormSectionController section : getSections()) {
-            FormElementController element = section.getElement(name);
-            if (element != null) {
-                return element;
-            }
-        }
-        return null;
+        return elementsByName.get(name);
     }
 
     /**
@@ -151,23 +258,61 @@ public class FormController {
      * @return  the total number of elements in this form, not including sections
      */
     public int getNumberOfElements() {
-        int count = 0;
-        for (FormSectionController section : getSections()) {
-            count += section.getElements().size();
-        }
+        return elementsByName.size();
+    }
 
-        return count;
+    void onElementAdded(FormElementController element) {
+        elementsByName.put(element.getName(), element);
+        element.setFormController(this);
+    }
+
+    void onElementRemoved(FormElementController element) {
+        if (elementsByName.get(element.getName()) == element) {
+            elementsByName.remove(element.getName());
+        }
+        // release the view while the element can still return it to the form's view pool
+        element.destroyView();
+        element.setFormController(null);
     }
 
     /**
      * Refreshes the view of all elements in this form to reflect current model values
      */
     public void refreshElements() {
+        refreshScheduler.cancel();
         for (FormSectionController section : getSections()) {
             section.refresh();
         }
     }
 
+    /**
+     * Sets whether elements are refreshed immediately whenever their value changes in the model. By default, changes are
+     * coalesced and each affected element is refreshed at most once, on the next frame. Synchronous refreshes are mostly
+     * useful for tests.
+     *
+     * @param synchronous   if true, elements are refreshed as soon as their value changes
+     */
+    public void setSynchronousRefresh(boolean synchronous) {
+        refreshScheduler.setSynchronous(synchronous);
+    }
+
+    /**
+     * Indicates whether elements are refreshed immediately whenever their value changes in the model.
+     *
+     * @return true if elements are refreshed synchronously, or false if refreshes are coalesced per frame
+     */
+    public boolean isSynchronousRefresh() {
+        return refreshScheduler.isSynchronous();
+    }
+
+    void refreshElement(String name) {
+        FormElementController element = getElement(name);
+        // elements without a view will pick up the current value once their view is created
+        if (element != null && element.isViewCreated()) {
+            element.refresh();
+        }
+    }
+
     /**
      * Returns a list of validation errors of the form's input
      *
@@ -224,29 +369,146 @@ public class FormController {
     /**
      * Adds all the form elements that were added to this <code>FormController</code> inside the specified
      * <code>ViewGroup</code>. This method should be called once the form elements have been added to this controller.
+     * Calling it again after elements have been added, removed or reordered only inserts, removes or moves the views that
+     * changed.
      *
      * @param containerView the view container to add the form elements within
      */
     public void recreateViews(ViewGroup containerView) {
-        containerView.removeAllViews();
+        cancelProgressiveViewCreation();
+        List<View> views = new ArrayList<View>();
+        for (FormElementController element : prepareElements()) {
+            views.add(element.getView());
+        }
+
+        // only touch the views that changed, so that adding or removing a single element does not re-add every view
+        removeViewsExcept(containerView, views);
+        for (int i = 0; i < views.size(); i++) {
+            attachView(containerView, views.get(i), i);
+        }
+
+        // now that the view is setup, register a listener of the model to update the view on changes
+        registerFormModelListener();
+    }
+
+    /**
+     * Adds all the form elements that were added to this <code>FormController</code> inside the specified
+     * <code>ViewGroup</code>, like {@link #recreateViews(ViewGroup)}, but without creating all the views at once. The
+     * views that fill the first screen are created before this method returns, and the remaining views are created on
+     * the following frames, within a small time budget per frame, so that large forms are displayed quickly and stay
+     * responsive while the rest of the form is built. If the form uses a {@link ViewPool}, the frames of labeled fields
+     * are inflated ahead of time on a background thread.
+     * <p/>
+     * The creation is cancelled if the views of the form are recreated or destroyed in the meantime.
+     *
+     * @param containerView the view container to add the form elements within
+     * @param listener      the listener to notify as views are created, or null
+     */
+    public void recreateViewsProgressively(ViewGroup containerView, ViewCreationListener listener) {
+        cancelProgressiveViewCreation();
+        List<FormElementController> elements = prepareElements();
+
+        List<View> createdViews = new ArrayList<View>();
+        for (FormElementController element : elements) {
+            if (element.isViewCreated()) {
+                createdViews.add(element.getView());
+            }
+        }
+        removeViewsExcept(containerView, createdViews);
+
+        // views created on later frames show the model's values at that time, and created views are refreshed on changes
+        registerFormModelListener();
+        progressiveViewBuilder = new ProgressiveViewBuilder(containerView, elements, viewPool, listener);
+        progressiveViewBuilder.start();
+    }
 
+    private void cancelProgressiveViewCreation() {
+        if (progressiveViewBuilder != null) {
+            progressiveViewBuilder.cancel();
+            progressiveViewBuilder = null;
+        }
+    }
+
+    /**
+     * Sets the model of all the sections and elements of this form, and returns them in display order.
+     */
+    private List<FormElementController> prepareElements() {
+        List<FormElementController> elements = new ArrayList<FormElementController>();
         for (FormSectionController section : getSections()) {
             ((FormElementController)section).setModel(getModel());
-            containerView.addView(section.getView());
+            elements.add(section);
 
             for (FormElementController element : section.getElements()) {
                 element.setModel(getModel());
-                containerView.addView(element.getView());
+                elements.add(element);
             }
         }
+        return elements;
+    }
+
+    private static void removeViewsExcept(ViewGroup containerView, List<View> views) {
+        Set<View> attachedViews = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+        attachedViews.addAll(views);
+        for (int i = containerView.getChildCount() - 1; i >= 0; i--) {
+            if (!attachedViews.contains(containerView.getChildAt(i))) {
+                containerView.removeViewAt(i);
+            }
+        }
+    }
+
+    /**
+     * Places a view at the specified position of a container, unless it is already there.
+     */
+    static void attachView(ViewGroup containerView, View view, int index) {
+        if (index < containerView.getChildCount() && containerView.getChildAt(index) == view) {
+            return;
+        }
+        if (view.getParent() != null) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        containerView.addView(view, index);
+    }
+
+    /**
+     * Displays all the form elements that were added to this <code>FormController</code> inside the specified
+     * <code>RecyclerView</code>. Unlike {@link #recreateViews(ViewGroup)}, the view of each element is only created once it
+     * becomes visible, which keeps the start-up time independent of the number of elements in the form. Views that are
+     * scrolled away are destroyed, and recreated from the model when scrolled back. If no {@link ViewPool} was set, the
+     * shared pool of the <code>RecyclerView</code>'s context is used, so that these views are reused across elements. This
+     * method should be called once the form elements have been added to this controller.
+     *
+     * @param recyclerView  the <code>RecyclerView</code> to display the form elements within. If it has no layout manager,
+     *                      a vertical <code>LinearLayoutManager</code> is used.
+     */
+    public void recreateViews(RecyclerView recyclerView) {
+        cancelProgressiveViewCreation();
+        if (recyclerView.getLayoutManager() == null) {
+            recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+        }
+
+        if (viewPool == null) {
+            viewPool = ViewPool.getSharedPool(recyclerView.getContext());
+        }
+        prepareElements();
+
+        FormElementsAdapter adapter;
+        if (recyclerView.getAdapter() instanceof FormElementsAdapter) {
+            adapter = (FormElementsAdapter) recyclerView.getAdapter();
+        } else {
+            adapter = new FormElementsAdapter();
+            recyclerView.setAdapter(adapter);
+        }
+        adapter.setSections(getSections());
 
         // now that the view is setup, register a listener of the model to update the view on changes
         registerFormModelListener();
     }
 
-    private PropertyChangeListener modelListener = new PropertyChangeListener() {
-        @Override public void propertyChange(PropertyChangeEvent event) {
-            getElement(event.getPropertyName()).refresh();
+    private ChangeSetListener modelListener = new ChangeSetListener() {
+        @Override public void onFieldsChanged(Set<String> fieldNames) {
+            for (String fieldName : fieldNames) {
+                refreshScheduler.scheduleRefresh(fieldName);
+            }
         }
     };
 }
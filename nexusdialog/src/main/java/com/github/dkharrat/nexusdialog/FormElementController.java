@@ -8,9 +8,11 @@ import android.view.View;
  * is referred by a name and has an associated {@link FormModel}.
  */
 public abstract class FormElementController {
-    private final Context context;
+    private Context context;
     private final String name;
     private FormModel model;
+    private int modelSlot = -1;
+    private FormController formController;
     private View view;
 
     /**
@@ -33,6 +35,10 @@ public abstract class FormElementController {
         return context;
     }
 
+    void setContext(Context context) {
+        this.context = context;
+    }
+
     /**
      * Returns the name of this form element.
      *
@@ -44,6 +50,7 @@ public abstract class FormElementController {
 
     void setModel(FormModel model) {
         this.model = model;
+        this.modelSlot = -1;
     }
 
     /**
@@ -55,6 +62,109 @@ public abstract class FormElementController {
         return model;
     }
 
+    /**
+     * Returns the value of this element's field in the associated model. If the model stores values by slot (such as
+     * {@link ArrayFormModel} or {@link TypedFormModel}), the slot of the field is resolved once and reused for subsequent
+     * accesses.
+     *
+     * @return the current value of this element's field
+     */
+    protected Object getModelValue() {
+        if (model instanceof ArrayFormModel) {
+            return ((ArrayFormModel)model).getValue(getModelSlot());
+        } else if (model instanceof TypedFormModel) {
+            return ((TypedFormModel)model).getValue(getModelSlot());
+        }
+        return model.getValue(name);
+    }
+
+    /**
+     * Sets the value of this element's field in the associated model.
+     *
+     * @param value the value to set
+     * @see #getModelValue()
+     */
+    protected void setModelValue(Object value) {
+        if (model instanceof ArrayFormModel) {
+            ((ArrayFormModel)model).setValue(getModelSlot(), value);
+        } else if (model instanceof TypedFormModel) {
+            ((TypedFormModel)model).setValue(getModelSlot(), value);
+        } else {
+            model.setValue(name, value);
+        }
+    }
+
+    /**
+     * Returns the slot of this element's field in the associated model, for models that store values by slot.
+     *
+     * @return the slot of this element's field, or -1 if the model does not store values by slot
+     * @throws IllegalStateException if the model's schema does not contain this element's field
+     * @see FormSchema
+     */
+    protected final int getModelSlot() {
+        if (modelSlot < 0) {
+            FormSchema schema = null;
+            if (model instanceof ArrayFormModel) {
+                schema = ((ArrayFormModel)model).getSchema();
+            } else if (model instanceof TypedFormModel) {
+                schema = ((TypedFormModel)model).getSchema();
+            }
+            if (schema != null) {
+                modelSlot = schema.getSlot(name);
+                if (modelSlot < 0) {
+                    throw new IllegalStateException("Field '" + name + "' is not part of the schema of the model");
+                }
+            }
+        }
+        return modelSlot;
+    }
+
+    /**
+     * Returns the associated model as a {@link TypedFormModel}, if it is one.
+     *
+     * @return the associated model, or null if it is not a <code>TypedFormModel</code>
+     */
+    protected final TypedFormModel getTypedModel() {
+        return model instanceof TypedFormModel ? (TypedFormModel)model : null;
+    }
+
+    void setFormController(FormController formController) {
+        this.formController = formController;
+    }
+
+    /**
+     * Returns the form that this element has been added to.
+     *
+     * @return the form that this element belongs to, or null if it has not been added to a form
+     */
+    public FormController getFormController() {
+        return formController;
+    }
+
+    /**
+     * Notifies the form of this element that a child element has been added. This is used by elements that contain other
+     * elements, such as sections, to keep the form's element index up to date.
+     *
+     * @param element   the element that was added
+     */
+    protected final void notifyElementAdded(FormElementController element) {
+        if (formController != null) {
+            formController.onElementAdded(element);
+        }
+    }
+
+    /**
+     * Notifies the form of this element that a child element has been removed.
+     *
+     * @param element   the element that was removed
+     * @see #notifyElementAdded(FormElementController)
+     */
+    protected final void notifyElementRemoved(FormElementController element) {
+        if (formController != null) {
+            formController.onElementRemoved(element);
+        }
+    }
+
     /**
      * Returns the associated view for this element.
      *
@@ -76,6 +186,24 @@ public abstract class FormElementController {
         return view != null;
     }
 
+    /**
+     * Releases the view of this element, so that it can be garbage collected. A new view will be created the next time
+     * {@link #getView()} is called.
+     */
+    void destroyView() {
+        if (view != null) {
+            view = null;
+            onViewDestroyed();
+        }
+    }
+
+    /**
+     * Called when the view of this element has been released. Subclasses that hold references to views of this element
+     * should clear them here.
+     */
+    protected void onViewDestroyed() {
+    }
+
     /**
      * Constructs the view for this element.
      *
@@ -0,0 +1,112 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A <code>RecyclerView</code> adapter that displays the sections and elements of a form. Views of the form elements are only
+ * created when they are bound, and are destroyed when the <code>RecyclerView</code> recycles their item, so the number of
+ * live element views is bounded by the number of items on screen rather than by the size of the form. The values of the
+ * elements are kept by the form model, which is written as the user edits a field, so scrolling back to an element
+ * recreates its view from the model. Elements that use the form's {@link ViewPool} return their pooled views to it when
+ * destroyed, which lets the next bound element of the same kind reuse them instead of inflating new ones.
+ */
+class FormElementsAdapter extends RecyclerView.Adapter<FormElementsAdapter.ElementViewHolder> {
+    private final List<FormElementController> elements = new ArrayList<FormElementController>();
+    private final Map<Class<?>, Integer> viewTypes = new HashMap<Class<?>, Integer>();
+
+    /**
+     * Sets the sections (and their elements) to display.
+     *
+     * @param sections  the sections of the form
+     */
+    void setSections(List<FormSectionController> sections) {
+        elements.clear();
+        for (FormSectionController section : sections) {
+            elements.add(section);
+            elements.addAll(section.getElements());
+        }
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return elements.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        Class<?> elementClass = elements.get(position).getClass();
+        Integer viewType = viewTypes.get(elementClass);
+        if (viewType == null) {
+            viewType = viewTypes.size();
+            viewTypes.put(elementClass, viewType);
+        }
+        return viewType;
+    }
+
+    @Override
+    public ElementViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        FrameLayout container = new FrameLayout(parent.getContext());
+        container.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        return new ElementViewHolder(container);
+    }
+
+    @Override
+    public void onBindViewHolder(ElementViewHolder holder, int position) {
+        holder.bind(elements.get(position));
+    }
+
+    @Override
+    public void onViewRecycled(ElementViewHolder holder) {
+        holder.unbind();
+    }
+
+    static class ElementViewHolder extends RecyclerView.ViewHolder {
+        private final FrameLayout container;
+        private FormElementController element;
+
+        ElementViewHolder(FrameLayout container) {
+            super(container);
+            this.container = container;
+        }
+
+        void bind(FormElementController newElement) {
+            if (element == newElement && isShowingElement()) {
+                return;
+            }
+            unbind();
+
+            View view = newElement.getView();
+            if (view.getParent() != null) {
+                ((ViewGroup) view.getParent()).removeView(view);
+            }
+            container.addView(view);
+            element = newElement;
+        }
+
+        void unbind() {
+            if (element != null) {
+                // the element may have been bound to another holder in the meantime, in which case it stays there
+                if (isShowingElement()) {
+                    container.removeView(element.getView());
+                    element.destroyView();
+                }
+                element = null;
+            }
+        }
+
+        private boolean isShowingElement() {
+            return element.isViewCreated() && element.getView().getParent() == container;
+        }
+    }
+}
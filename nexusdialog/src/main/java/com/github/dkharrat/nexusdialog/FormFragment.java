@@ -4,11 +4,14 @@ import android.content.Context;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
+import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 
+import com.github.dkharrat.nexusdialog.persistence.SavedFormState;
+
 /**
  * <code>FormFragment</code> provides a default Fragment implementation for using NexusDialog. It also handles retaining the
  * <code>FormModel</code> when the Fragment is recreated.
@@ -16,10 +19,11 @@ import android.view.WindowManager;
 public abstract class FormFragment extends Fragment {
     private FormModelFragment formModelFragment;
     private FormController formController;
+    private boolean formRetained;
 
     @Override
     public View onCreateView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        return inflater.inflate(R.layout.form_activity, null);
+        return inflater.inflate(useVirtualizedRendering() ? R.layout.form_recycler : R.layout.form_activity, null);
     }
 
     @Override
@@ -27,12 +31,39 @@ public abstract class FormFragment extends Fragment {
         super.onAttach(context);
 
         this.formModelFragment = FragmentActivityHelper.getFormModelFragment(this.getActivity());
-        this.formController = new FormController(context, formModelFragment.getModel());
+        FormController retainedController =
+                shouldRetainForm() ? formModelFragment.getFormController(getRetainedFormKey()) : null;
 
         getActivity().getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE
                 | WindowManager.LayoutParams.SOFT_INPUT_STATE_HIDDEN);
 
-        initForm(formController);
+        if (retainedController != null) {
+            // the form and its model survived a configuration change, so only its views need to be created again
+            this.formController = retainedController;
+            this.formRetained = true;
+            formController.rebind(context);
+        } else {
+            this.formController = new FormController(context, formModelFragment.getModel());
+            this.formRetained = false;
+            initForm(formController);
+            if (shouldRetainForm()) {
+                formModelFragment.setFormController(getRetainedFormKey(), formController);
+            }
+        }
+    }
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (!formRetained) {
+            SavedFormState.restore(formController, savedInstanceState, FormModelFragment.STATE_KEY);
+        }
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        SavedFormState.save(formController, outState, FormModelFragment.STATE_KEY);
     }
 
     @Override
@@ -41,11 +72,67 @@ public abstract class FormFragment extends Fragment {
         recreateViews();
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // return pooled views, and don't keep the views of this Fragment in a retained form
+        formController.destroyViews();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // the form is only kept for the recreated Fragment, not once the Fragment is removed or its Activity finishes
+        if (shouldRetainForm() && (isRemoving() || !FragmentActivityHelper.isChangingConfigurations(getActivity()))) {
+            formModelFragment.setFormController(getRetainedFormKey(), null);
+        }
+    }
+
     /**
      * An abstract method that must be overridden by subclasses where the form fields are initialized.
      */
     abstract public void initForm(FormController controller);
 
+    /**
+     * Indicates whether the form's elements are kept when the Fragment is recreated after a configuration change, such as
+     * a screen rotation. If enabled, {@link #initForm} is only called the first time the Fragment is attached, and the
+     * same elements are displayed in the recreated Fragment, which avoids building large forms again. Elements must then
+     * not hold references to the Activity other than their context. Subclasses can override this method to enable it.
+     * Default is false.
+     */
+    protected boolean shouldRetainForm() {
+        return false;
+    }
+
+    /**
+     * Returns the key the form is retained with when {@link #shouldRetainForm()} is enabled, which must be unique among the
+     * forms of the Activity. Default is the Fragment's tag, or the name of its class if it has no tag.
+     */
+    protected String getRetainedFormKey() {
+        return getTag() != null ? getTag() : getClass().getName();
+    }
+
+    /**
+     * Indicates whether the form is displayed in a <code>RecyclerView</code>, where only the views of visible elements are
+     * created. This is recommended for forms with a large number of elements. Subclasses can override this method to enable
+     * it. Default is false.
+     */
+    protected boolean useVirtualizedRendering() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the views of the form are created progressively: the views that fill the first screen are created
+     * immediately, and the remaining ones on the following frames. This is recommended for large forms that are not
+     * displayed with {@link #useVirtualizedRendering()}. Subclasses can override this method to enable it. Default is
+     * false.
+     *
+     * @see FormController#recreateViewsProgressively
+     */
+    protected boolean useProgressiveRendering() {
+        return false;
+    }
+
     /**
      * Returns the associated <code>FormController</code> that manages the form fields.
      */
@@ -75,7 +162,16 @@ public abstract class FormFragment extends Fragment {
      * removed
      */
     protected void recreateViews() {
-        ViewGroup containerView = (ViewGroup) getActivity().findViewById(R.id.form_elements_container);
-        formController.recreateViews(containerView);
+        if (useVirtualizedRendering()) {
+            RecyclerView recyclerView = (RecyclerView) getActivity().findViewById(R.id.form_elements_recycler);
+            formController.recreateViews(recyclerView);
+        } else {
+            ViewGroup containerView = (ViewGroup) getActivity().findViewById(R.id.form_elements_container);
+            if (useProgressiveRendering()) {
+                formController.recreateViewsProgressively(containerView, null);
+            } else {
+                formController.recreateViews(containerView);
+            }
+        }
     }
 }
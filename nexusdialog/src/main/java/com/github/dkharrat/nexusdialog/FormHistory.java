@@ -0,0 +1,270 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.os.SystemClock;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <code>FormHistory</code> records the changes made to a {@link FormModel} so that they can be undone and redone. Each
+ * step only stores the fields that changed in it, along with their previous and new values, so the unchanged state of
+ * the form is shared with the model instead of being copied for every step.
+ * <p/>
+ * A step corresponds to a single change, or to a batch of changes committed together. Consecutive keystrokes in the
+ * same text field (see {@link FormModel#isTextInput()}) within a short time window are merged into a single step.
+ * Other changes, such as a selection in a spinner or a value set by the app, always make a step of their own. The
+ * history is bounded by an estimate of its memory usage, and the oldest steps are discarded once it is exceeded.
+ */
+public class FormHistory {
+    /** The default maximum memory used by the history, in bytes. */
+    public static final int DEFAULT_MAX_BYTES = 256 * 1024;
+    /** Text input to the same field within this time of the previous input is merged into the same step. */
+    public static final long MERGE_WINDOW_MS = 1000;
+
+    // rough per-object costs used to estimate the size of a step
+    private static final int STEP_OVERHEAD_BYTES = 64;
+    private static final int CHANGE_OVERHEAD_BYTES = 48;
+    private static final int OBJECT_BYTES = 16;
+
+    private final FormModel model;
+    private final int maxBytes;
+    private final Deque<Step> undoSteps = new ArrayDeque<Step>();
+    private final Deque<Step> redoSteps = new ArrayDeque<Step>();
+    private int usedBytes = 0;
+
+    // changes reported by the model that have not been closed into a step yet
+    private final Map<String,Change> pendingChanges = new LinkedHashMap<String,Change>();
+    private boolean applyingStep = false;
+
+    private static class Change {
+        final Object oldValue;
+        Object newValue;
+        boolean textInput;
+
+        Change(Object oldValue, Object newValue, boolean textInput) {
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.textInput = textInput;
+        }
+    }
+
+    private static class Step {
+        final Map<String,Change> changes;
+        long lastChangeTime;
+        int sizeBytes;
+
+        Step(Map<String,Change> changes, long time) {
+            this.changes = changes;
+            this.lastChangeTime = time;
+        }
+
+        boolean isSingleTextInputOf(String name) {
+            Change change = changes.size() == 1 ? changes.get(name) : null;
+            return change != null && change.textInput;
+        }
+    }
+
+    /**
+     * Creates a history that records the changes of the specified model, bounded by {@link #DEFAULT_MAX_BYTES}.
+     *
+     * @param model the model to record the changes of
+     */
+    public FormHistory(FormModel model) {
+        this(model, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a history that records the changes of the specified model.
+     *
+     * @param model     the model to record the changes of
+     * @param maxBytes  the estimated memory the history may use before the oldest steps are discarded
+     */
+    public FormHistory(FormModel model, int maxBytes) {
+        this.model = model;
+        this.maxBytes = maxBytes;
+        model.addFieldChangeListener(fieldListener);
+        model.addChangeSetListener(changeSetListener);
+    }
+
+    /**
+     * Stops recording changes of the model. The recorded steps can still be undone and redone.
+     */
+    public void detach() {
+        model.removeFieldChangeListener(fieldListener);
+        model.removeChangeSetListener(changeSetListener);
+    }
+
+    /**
+     * Indicates whether there is a step that can be undone.
+     */
+    public boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    /**
+     * Indicates whether there is a step that can be redone.
+     */
+    public boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * Reverts the fields changed in the most recent step to their previous values.
+     *
+     * @return true if a step was undone, or false if there was nothing to undo
+     */
+    public boolean undo() {
+        Step step = undoSteps.pollLast();
+        if (step == null) {
+            return false;
+        }
+
+        Map<String,Object> values = new LinkedHashMap<String,Object>();
+        for (Map.Entry<String,Change> entry : step.changes.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().oldValue);
+        }
+        apply(values);
+
+        usedBytes -= step.sizeBytes;
+        redoSteps.addLast(step);
+        return true;
+    }
+
+    /**
+     * Applies the most recently undone step again.
+     *
+     * @return true if a step was redone, or false if there was nothing to redo
+     */
+    public boolean redo() {
+        Step step = redoSteps.pollLast();
+        if (step == null) {
+            return false;
+        }
+
+        Map<String,Object> values = new LinkedHashMap<String,Object>();
+        for (Map.Entry<String,Change> entry : step.changes.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().newValue);
+        }
+        apply(values);
+
+        // a redone step must not absorb subsequent edits
+        step.lastChangeTime = 0;
+        addUndoStep(step);
+        return true;
+    }
+
+    /**
+     * Discards all recorded steps.
+     */
+    public void clear() {
+        undoSteps.clear();
+        redoSteps.clear();
+        pendingChanges.clear();
+        usedBytes = 0;
+    }
+
+    private void apply(Map<String,Object> values) {
+        applyingStep = true;
+        try {
+            model.setValues(values);
+        } finally {
+            applyingStep = false;
+        }
+    }
+
+    private void closeStep() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        redoSteps.clear();
+
+        Step lastStep = undoSteps.peekLast();
+        if (pendingChanges.size() == 1 && lastStep != null && now - lastStep.lastChangeTime < MERGE_WINDOW_MS) {
+            Map.Entry<String,Change> entry = pendingChanges.entrySet().iterator().next();
+            if (entry.getValue().textInput && lastStep.isSingleTextInputOf(entry.getKey())) {
+                // keep the value from before the first change of the merged step
+                undoSteps.removeLast();
+                usedBytes -= lastStep.sizeBytes;
+                Change change = lastStep.changes.get(entry.getKey());
+                change.newValue = entry.getValue().newValue;
+                lastStep.lastChangeTime = now;
+                pendingChanges.clear();
+                // the merged edits may have restored the original value, in which case there is nothing to undo
+                if (!FormModel.objectsEqual(change.oldValue, change.newValue)) {
+                    addUndoStep(lastStep);
+                }
+                return;
+            }
+        }
+
+        Step step = new Step(new LinkedHashMap<String,Change>(pendingChanges), now);
+        pendingChanges.clear();
+        addUndoStep(step);
+    }
+
+    private void addUndoStep(Step step) {
+        step.sizeBytes = estimateSize(step);
+        undoSteps.addLast(step);
+        usedBytes += step.sizeBytes;
+
+        // always keep the latest step, even if it exceeds the budget on its own
+        while (usedBytes > maxBytes && undoSteps.size() > 1) {
+            usedBytes -= undoSteps.removeFirst().sizeBytes;
+        }
+    }
+
+    private static int estimateSize(Step step) {
+        int size = STEP_OVERHEAD_BYTES;
+        for (Map.Entry<String,Change> entry : step.changes.entrySet()) {
+            size += CHANGE_OVERHEAD_BYTES + estimateSize(entry.getKey())
+                    + estimateSize(entry.getValue().oldValue) + estimateSize(entry.getValue().newValue);
+        }
+        return size;
+    }
+
+    private static int estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof CharSequence) {
+            return OBJECT_BYTES + 2 * ((CharSequence) value).length();
+        } else if (value instanceof Collection) {
+            int size = OBJECT_BYTES;
+            for (Object element : (Collection<?>) value) {
+                size += OBJECT_BYTES + estimateSize(element);
+            }
+            return size;
+        }
+        return OBJECT_BYTES;
+    }
+
+    private final FieldChangeListener fieldListener = new FieldChangeListener() {
+        @Override public void onFieldChanged(String fieldName, Object oldValue, Object newValue) {
+            if (applyingStep) {
+                return;
+            }
+
+            Change change = pendingChanges.get(fieldName);
+            if (change != null) {
+                change.newValue = newValue;
+                change.textInput &= model.isTextInput();
+            } else {
+                pendingChanges.put(fieldName, new Change(oldValue, newValue, model.isTextInput()));
+            }
+        }
+    };
+
+    // change sets are fired after the field changes they contain, so they mark the end of a step
+    private final ChangeSetListener changeSetListener = new ChangeSetListener() {
+        @Override public void onFieldsChanged(Set<String> fieldNames) {
+            if (!applyingStep) {
+                closeStep();
+            }
+        }
+    };
+}
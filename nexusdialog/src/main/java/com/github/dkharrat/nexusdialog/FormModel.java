@@ -1,14 +1,50 @@
 package com.github.dkharrat.nexusdialog;
 
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * <code>FormModel</code> is an abstract class that represents the backing data for a form. It provides a mechanism
  * for form elements to retrieve their values to display to the user and persist changes to the model upon changes.
+ * <p/>
+ * Change notifications are delivered synchronously on the thread that changed the value. A model and its listeners are
+ * expected to be used from a single thread, typically the main thread; use {@link ConcurrentFormModel} for a model that is
+ * also written from background threads. To change several fields at once, the changes can be grouped in a batch using
+ * {@link #beginBatch()} and {@link #commit()}, in which case notifications are deferred until the batch is committed.
+ * <p/>
+ * After {@link #markClean()} is called, the model keeps track of the fields whose value differs from the value they had
+ * at that time, so that only the changed fields need to be saved (see {@link #exportChanges()}).
  */
 public abstract class FormModel {
-    private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
+    private static final FieldChangeListener[] NO_LISTENERS = new FieldChangeListener[0];
+    private static final ChangeSetListener[] NO_CHANGE_SET_LISTENERS = new ChangeSetListener[0];
+
+    // listener arrays are replaced on every change (copy-on-write) so that firing a change never allocates or copies
+    private FieldChangeListener[] listeners = NO_LISTENERS;
+    private final Map<String,FieldChangeListener[]> fieldListeners = new HashMap<String,FieldChangeListener[]>();
+    private ChangeSetListener[] changeSetListeners = NO_CHANGE_SET_LISTENERS;
+    // the set passed to ChangeSetListeners for a change made outside of a batch, reused to not allocate on every change
+    private final SingleFieldSet singleChangedField = new SingleFieldSet();
+
+    private int batchDepth = 0;
+    // the value each field had before it was first changed in the current batch
+    private final Map<String,Object> batchOldValues = new LinkedHashMap<String,Object>();
+
+    private boolean textInput = false;
+
+    private boolean trackingChanges = false;
+    // the value each field had when the model was marked clean, recorded when the field is first changed afterwards
+    private final Map<String,Object> cleanValues = new HashMap<String,Object>();
+    private final Set<String> dirtyFields = new LinkedHashSet<String>();
 
     /**
      * This method is called when a form element changes its value through user input or external changes. Subclasses
@@ -40,8 +76,8 @@ public abstract class FormModel {
 
     /**
      *
-     * Sets a value for the specified field name. A property change notification is fired to registered listeners if
-     * the field's value changed.
+     * Sets a value for the specified field name. A change notification is fired to registered listeners if the field's
+     * value changed.
      *
      * @param name      the field name to set the value for
      * @param newValue  the value to set
@@ -50,11 +86,251 @@ public abstract class FormModel {
         Object curValue = getBackingValue(name);
         if (!objectsEqual(curValue, newValue)) {
             setBackingValue(name, newValue);
-            propertyChangeSupport.firePropertyChange(name, curValue, newValue);
+            valueChanged(name, curValue, newValue);
+        }
+    }
+
+    /**
+     * Notifies listeners that the value of a field has changed, or records the change if a batch is in progress.
+     * Subclasses that provide additional ways of changing values must call this method after each change. Subclasses
+     * may override this method to change how notifications are delivered (e.g. on another thread), in which case they
+     * must eventually call the super implementation for the change to be delivered.
+     *
+     * @param name      the name of the field that changed
+     * @param oldValue  the previous value of the field
+     * @param newValue  the new value of the field
+     */
+    protected void valueChanged(String name, Object oldValue, Object newValue) {
+        if (trackingChanges) {
+            trackChange(name, oldValue, newValue);
+        }
+
+        if (batchDepth > 0) {
+            if (!batchOldValues.containsKey(name)) {
+                batchOldValues.put(name, oldValue);
+            }
+        } else {
+            fireValueChanged(name, oldValue, newValue);
+            if (changeSetListeners.length > 0) {
+                fireFieldChanged(name);
+            }
         }
     }
 
-    private static boolean objectsEqual(Object a, Object b) {
+    /**
+     * Indicates whether the old and new values of a change to the specified field are needed. Subclasses that store
+     * values in a representation that requires an allocation to convert to an {@code Object} (such as primitives) can
+     * use this to avoid the conversion, and pass {@code null} values to {@link #valueChanged} instead.
+     *
+     * @param name  the name of the field
+     * @return      true if the values of a change to the field are observed, otherwise false
+     */
+    protected final boolean isValueObserved(String name) {
+        return trackingChanges || batchDepth > 0 || listeners.length > 0 || fieldListeners.containsKey(name);
+    }
+
+    /**
+     * Marks the changes made until {@link #endTextInput()} is called as text typed by the user, such as the keystrokes in
+     * an {@link com.github.dkharrat.nexusdialog.controllers.EditTextController}. Listeners can check
+     * {@link #isTextInput()} while being notified of those changes.
+     */
+    public void beginTextInput() {
+        textInput = true;
+    }
+
+    /**
+     * Ends the text input started by {@link #beginTextInput()}.
+     */
+    public void endTextInput() {
+        textInput = false;
+    }
+
+    /**
+     * Indicates whether the change that listeners are being notified of was typed by the user in a text field. This is
+     * only the case for changes that are notified synchronously, outside of a batch.
+     *
+     * @return true if the current change is text input, otherwise false
+     */
+    public boolean isTextInput() {
+        return textInput && batchDepth == 0;
+    }
+
+    /**
+     * Sets the values of multiple fields at once. The values are set within a batch, so listeners are notified once all
+     * values have been set.
+     *
+     * @param values    a map of field names to the values to set
+     * @see #beginBatch()
+     */
+    public final void setValues(Map<String,?> values) {
+        beginBatch();
+        try {
+            for (Map.Entry<String,?> entry : values.entrySet()) {
+                setValue(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            commit();
+        }
+    }
+
+    /**
+     * Starts a batch of changes. Until the batch is committed, values are updated right away but listeners are not
+     * notified. Batches can be nested, in which case notifications are delivered when the outermost batch is committed.
+     *
+     * @see #commit()
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Commits the current batch of changes. If this ends the outermost batch, {@link FieldChangeListener}s are notified
+     * for every field whose value differs from the value it had when the batch started, and {@link ChangeSetListener}s
+     * are notified once with the names of all those fields.
+     *
+     * @throws IllegalStateException if no batch is in progress
+     */
+    public void commit() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch in progress");
+        }
+        if (--batchDepth > 0 || batchOldValues.isEmpty()) {
+            return;
+        }
+
+        Map<String,Object> oldValues = new LinkedHashMap<String,Object>(batchOldValues);
+        batchOldValues.clear();
+
+        Set<String> changedFields = new LinkedHashSet<String>();
+        for (Map.Entry<String,Object> entry : oldValues.entrySet()) {
+            Object curValue = getBackingValue(entry.getKey());
+            // a field may have been changed back to its original value within the batch
+            if (!objectsEqual(entry.getValue(), curValue)) {
+                changedFields.add(entry.getKey());
+                fireValueChanged(entry.getKey(), entry.getValue(), curValue);
+            }
+        }
+
+        if (!changedFields.isEmpty()) {
+            fireFieldsChanged(Collections.unmodifiableSet(changedFields));
+        }
+    }
+
+    /**
+     * Indicates whether a batch of changes is in progress.
+     *
+     * @return true if a batch was started and not yet committed, otherwise false
+     */
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    /**
+     * Marks the current values of the model as clean, e.g. after they have been loaded from or saved to a backend. From
+     * then on, the model keeps track of the fields that are changed to a different value.
+     */
+    public void markClean() {
+        trackingChanges = true;
+        cleanValues.clear();
+        dirtyFields.clear();
+    }
+
+    /**
+     * Indicates whether any field has a different value than when the model was last marked clean.
+     *
+     * @return true if any field changed since {@link #markClean()} was called, otherwise false
+     */
+    public boolean isDirty() {
+        return !dirtyFields.isEmpty();
+    }
+
+    /**
+     * Indicates whether the specified field has a different value than when the model was last marked clean. A field
+     * that was changed and then reverted to its original value is not dirty.
+     *
+     * @param name  the field name
+     * @return      true if the field changed since {@link #markClean()} was called, otherwise false
+     */
+    public boolean isDirty(String name) {
+        return dirtyFields.contains(name);
+    }
+
+    /**
+     * Returns the names of the fields that have a different value than when the model was last marked clean. If the model
+     * was never marked clean, no fields are dirty.
+     *
+     * @return an unmodifiable view of the names of the dirty fields
+     */
+    public Set<String> getDirtyFields() {
+        return Collections.unmodifiableSet(dirtyFields);
+    }
+
+    /**
+     * Returns the current values of the fields that changed since the model was last marked clean.
+     *
+     * @return a new map of the names of the dirty fields to their current values
+     */
+    public Map<String,Object> exportChanges() {
+        Map<String,Object> changes = new LinkedHashMap<String,Object>();
+        for (String name : dirtyFields) {
+            changes.put(name, getBackingValue(name));
+        }
+        return changes;
+    }
+
+    private void trackChange(String name, Object oldValue, Object newValue) {
+        Object cleanValue;
+        if (cleanValues.containsKey(name)) {
+            cleanValue = cleanValues.get(name);
+        } else {
+            cleanValue = oldValue;
+            cleanValues.put(name, cleanValue);
+        }
+
+        if (objectsEqual(cleanValue, newValue)) {
+            dirtyFields.remove(name);
+        } else {
+            dirtyFields.add(name);
+        }
+    }
+
+    private void fireFieldChanged(String name) {
+        if (singleChangedField.name != null) {
+            // a listener changed another field while being notified, so the reused set is still in use
+            fireFieldsChanged(Collections.singleton(name));
+            return;
+        }
+
+        singleChangedField.name = name;
+        try {
+            fireFieldsChanged(singleChangedField);
+        } finally {
+            singleChangedField.name = null;
+        }
+    }
+
+    private void fireFieldsChanged(Set<String> fieldNames) {
+        for (ChangeSetListener listener : changeSetListeners) {
+            listener.onFieldsChanged(fieldNames);
+        }
+    }
+
+    private void fireValueChanged(String name, Object oldValue, Object newValue) {
+        for (FieldChangeListener listener : listeners) {
+            listener.onFieldChanged(name, oldValue, newValue);
+        }
+
+        if (!fieldListeners.isEmpty()) {
+            FieldChangeListener[] namedListeners = fieldListeners.get(name);
+            if (namedListeners != null) {
+                for (FieldChangeListener listener : namedListeners) {
+                    listener.onFieldChanged(name, oldValue, newValue);
+                }
+            }
+        }
+    }
+
+    static boolean objectsEqual(Object a, Object b) {
         return a == b || (a != null && a.equals(b));
 
     }
@@ -62,36 +338,189 @@ public abstract class FormModel {
     /**
      * Subscribes {@code listener} to change notifications for all fields.
      *
-     * @see PropertyChangeSupport#addPropertyChangeListener(java.beans.PropertyChangeListener)
+     * @param listener  the listener to add
+     */
+    public void addFieldChangeListener(FieldChangeListener listener) {
+        if (listener != null) {
+            listeners = appendListener(listeners, listener);
+        }
+    }
+
+    /**
+     * Subscribes {@code listener} to change notifications for the specified field name.
+     *
+     * @param fieldName the name of the field to listen to
+     * @param listener  the listener to add
+     */
+    public void addFieldChangeListener(String fieldName, FieldChangeListener listener) {
+        if (listener != null) {
+            FieldChangeListener[] namedListeners = fieldListeners.get(fieldName);
+            fieldListeners.put(fieldName, appendListener(namedListeners != null ? namedListeners : NO_LISTENERS, listener));
+        }
+    }
+
+    /**
+     * Unsubscribes {@code listener} from change notifications for all fields.
+     *
+     * @param listener  the listener to remove
+     */
+    public void removeFieldChangeListener(FieldChangeListener listener) {
+        if (listener != null) {
+            listeners = removeListener(listeners, listener);
+        }
+    }
+
+    /**
+     * Unsubscribes {@code listener} from change notifications for the specified field name.
+     *
+     * @param fieldName the name of the field to stop listening to
+     * @param listener  the listener to remove
+     */
+    public void removeFieldChangeListener(String fieldName, FieldChangeListener listener) {
+        FieldChangeListener[] namedListeners = fieldListeners.get(fieldName);
+        if (listener != null && namedListeners != null) {
+            namedListeners = removeListener(namedListeners, listener);
+            if (namedListeners.length == 0) {
+                fieldListeners.remove(fieldName);
+            } else {
+                fieldListeners.put(fieldName, namedListeners);
+            }
+        }
+    }
+
+    /**
+     * Subscribes {@code listener} to notifications of change sets. Unlike {@link FieldChangeListener}s, the listener is
+     * notified once per committed batch, with the names of all the fields that changed.
+     *
+     * @param listener  the listener to add
+     */
+    public void addChangeSetListener(ChangeSetListener listener) {
+        if (listener != null) {
+            changeSetListeners = appendListener(changeSetListeners, listener);
+        }
+    }
+
+    /**
+     * Unsubscribes {@code listener} from notifications of change sets.
+     *
+     * @param listener  the listener to remove
+     */
+    public void removeChangeSetListener(ChangeSetListener listener) {
+        if (listener != null) {
+            changeSetListeners = removeListener(changeSetListeners, listener);
+        }
+    }
+
+    /**
+     * Subscribes {@code listener} to change notifications for all fields.
+     *
+     * @see #addFieldChangeListener(FieldChangeListener)
      */
     public void addPropertyChangeListener(PropertyChangeListener listener) {
-        propertyChangeSupport.addPropertyChangeListener(listener);
+        if (listener != null) {
+            addFieldChangeListener(new PropertyChangeListenerAdapter(this, listener));
+        }
     }
 
     /**
      * Subscribes {@code listener} to change notifications for the specified field name.
      *
-     * @see PropertyChangeSupport#addPropertyChangeListener(String, java.beans.PropertyChangeListener)
+     * @see #addFieldChangeListener(String, FieldChangeListener)
      */
     public void addPropertyChangeListener(String fieldName, PropertyChangeListener listener) {
-        propertyChangeSupport.addPropertyChangeListener(fieldName, listener);
+        if (listener != null) {
+            addFieldChangeListener(fieldName, new PropertyChangeListenerAdapter(this, listener));
+        }
     }
 
     /**
      * Unsubscribes {@code listener} from change notifications for all fields.
      *
-     * @see PropertyChangeSupport#removePropertyChangeListener(java.beans.PropertyChangeListener)
+     * @see #removeFieldChangeListener(FieldChangeListener)
      */
     public void removePropertyChangeListener(PropertyChangeListener listener) {
-        propertyChangeSupport.removePropertyChangeListener(listener);
+        if (listener != null) {
+            removeFieldChangeListener(new PropertyChangeListenerAdapter(this, listener));
+        }
     }
 
     /**
      * Unsubscribes {@code listener} from change notifications for the specified field name.
      *
-     * @see PropertyChangeSupport#removePropertyChangeListener(String, java.beans.PropertyChangeListener)
+     * @see #removeFieldChangeListener(String, FieldChangeListener)
      */
     public void removePropertyChangeListener(String fieldName, PropertyChangeListener listener) {
-        propertyChangeSupport.removePropertyChangeListener(fieldName, listener);
+        if (listener != null) {
+            removeFieldChangeListener(fieldName, new PropertyChangeListenerAdapter(this, listener));
+        }
+    }
+
+    /**
+     * An unmodifiable set containing the name of a single field, which is reused for every change. Its iterator is
+     * reused too once it has returned the name, so that listeners iterating over the set don't allocate on every
+     * keystroke. An iterator that hasn't returned the name yet is still in use, so a new one is returned instead.
+     */
+    private static class SingleFieldSet extends AbstractSet<String> {
+        String name;
+        private final SingleFieldIterator iterator = new SingleFieldIterator();
+
+        @Override
+        public int size() {
+            return 1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return name.equals(o);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            SingleFieldIterator result = iterator.hasNext ? new SingleFieldIterator() : iterator;
+            result.name = name;
+            result.hasNext = true;
+            return result;
+        }
+    }
+
+    private static class SingleFieldIterator implements Iterator<String> {
+        String name;
+        boolean hasNext = false;
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            return name;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static <T> T[] appendListener(T[] array, T listener) {
+        T[] newArray = Arrays.copyOf(array, array.length + 1);
+        newArray[array.length] = listener;
+        return newArray;
+    }
+
+    private static <T> T[] removeListener(T[] array, T listener) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(listener)) {
+                T[] newArray = Arrays.copyOf(array, array.length - 1);
+                System.arraycopy(array, i + 1, newArray, i, array.length - i - 1);
+                return newArray;
+            }
+        }
+        return array;
     }
 }
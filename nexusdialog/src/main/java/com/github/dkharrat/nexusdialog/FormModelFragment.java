@@ -4,11 +4,18 @@ import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class FormModelFragment extends Fragment {
 
     public static final String TAG = "nd_model";
+    // the key under which forms save a snapshot of their model, which restores it after the process was killed
+    static final String STATE_KEY = "nd_form_state";
 
     private FormModel model;
+    // the forms retained across configuration changes, keyed by the Activity or Fragment that displays them
+    private final Map<String,FormController> formControllers = new HashMap<String,FormController>();
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -23,4 +30,30 @@ public class FormModelFragment extends Fragment {
     public void setModel(FormModel model) {
         this.model = model;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns a form that is retained across configuration changes, if the form opted in to it.
+     *
+     * @param key   the key the form was retained with, which identifies the Activity or Fragment displaying it
+     * @return      the retained form, or null if none is retained with this key
+     */
+    public FormController getFormController(String key) {
+        return formControllers.get(key);
+    }
+
+    /**
+     * Sets a form to retain across configuration changes. The form must be moved to the recreated Activity with
+     * {@link FormController#rebind} before it is displayed again. Since this Fragment is shared by all the forms of an
+     * Activity, each form is retained with its own key, and must be removed once it is destroyed for good.
+     *
+     * @param key               the key that identifies the Activity or Fragment displaying the form
+     * @param formController    the form to retain, or null to stop retaining the form with this key
+     */
+    public void setFormController(String key, FormController formController) {
+        if (formController != null) {
+            formControllers.put(key, formController);
+        } else {
+            formControllers.remove(key);
+        }
+    }
+}
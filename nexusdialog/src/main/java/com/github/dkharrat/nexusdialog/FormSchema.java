@@ -0,0 +1,97 @@
+package com.github.dkharrat.nexusdialog;
+
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>FormSchema</code> assigns a stable integer slot to each field name of a form. Slots are assigned in the order in
+ * which fields are added, starting at 0, and never change afterwards. Models such as {@link ArrayFormModel} use the slots
+ * to store values in flat arrays instead of hashing field names on every access.
+ */
+public final class FormSchema {
+    private final Map<String,Integer> slots = new HashMap<String,Integer>();
+    private final List<String> fieldNames = new ArrayList<String>();
+
+    /**
+     * Creates an empty schema.
+     */
+    public FormSchema() {
+    }
+
+    /**
+     * Creates a schema containing the names of all the elements of the specified form, in the order they appear in the
+     * form.
+     *
+     * @param formController    the form to create the schema from
+     * @return                  a new schema containing the fields of the form
+     */
+    public static FormSchema fromForm(FormController formController) {
+        FormSchema schema = new FormSchema();
+        for (FormSectionController section : formController.getSections()) {
+            for (FormElementController element : section.getElements()) {
+                schema.addField(element.getName());
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Adds a field to this schema, if it does not exist yet.
+     *
+     * @param name  the name of the field
+     * @return      the slot of the field
+     */
+    public int addField(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = fieldNames.size();
+            slots.put(name, slot);
+            fieldNames.add(name);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the specified field.
+     *
+     * @param name  the name of the field
+     * @return      the slot of the field, or -1 if the field is not part of this schema
+     */
+    public int getSlot(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Returns the name of the field at the specified slot.
+     *
+     * @param slot  the slot of the field
+     * @return      the name of the field
+     */
+    public String getFieldName(int slot) {
+        return fieldNames.get(slot);
+    }
+
+    /**
+     * Returns the names of all the fields of this schema, ordered by slot.
+     *
+     * @return an unmodifiable list of the field names
+     */
+    public List<String> getFieldNames() {
+        return Collections.unmodifiableList(fieldNames);
+    }
+
+    /**
+     * Returns the number of fields in this schema.
+     *
+     * @return the number of fields in this schema
+     */
+    public int size() {
+        return fieldNames.size();
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.dkharrat.nexusdialog;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, point-in-time view of the values of a form model, as returned by {@link MapFormModel#snapshot()}. The
+ * values of a snapshot never change, so it can safely be read from any thread.
+ */
+public final class FormSnapshot {
+    private final Map<String,Object> values;
+
+    /**
+     * Creates a snapshot of the specified values. The map must not be modified afterwards.
+     */
+    FormSnapshot(Map<String,Object> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Returns the value of the specified field at the time the snapshot was taken.
+     *
+     * @param name  the field name
+     * @return      the value of the field, or null if it was not set
+     */
+    public Object getValue(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Indicates whether a value was set for the specified field at the time the snapshot was taken.
+     *
+     * @param name  the field name
+     * @return      true if the field was set, otherwise false
+     */
+    public boolean containsField(String name) {
+        return values.containsKey(name);
+    }
+
+    /**
+     * Returns the names of the fields in this snapshot.
+     */
+    public Set<String> getFieldNames() {
+        return values.keySet();
+    }
+
+    /**
+     * Returns the number of fields in this snapshot.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Returns an unmodifiable map of the field names to their values in this snapshot.
+     */
+    public Map<String,Object> asMap() {
+        return values;
+    }
+}
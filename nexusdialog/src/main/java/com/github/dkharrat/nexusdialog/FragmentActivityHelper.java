@@ -1,5 +1,8 @@
 package com.github.dkharrat.nexusdialog;
 
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.os.Build;
 import android.support.v4.app.FragmentActivity;
 import android.support.v4.app.FragmentManager;
 
@@ -21,9 +24,26 @@ public class FragmentActivityHelper {
             formModelFragment = new FormModelFragment();
             fm.beginTransaction().add(formModelFragment, FormModelFragment.TAG).commit();
             formModelFragment.setModel(new MapFormModel());
+        } else if (formModelFragment.getModel() == null) {
+            // the fragment was recreated by the FragmentManager after the process was killed, so its model was lost
+            formModelFragment.setModel(new MapFormModel());
         }
 
         return formModelFragment;
     }
 
+    /**
+     * Indicates whether the specified Activity is being destroyed to be recreated with a new configuration. Before API 11,
+     * where this can't be known, an Activity that is not finishing is assumed to be recreated.
+     *
+     * @param activity  the Activity being destroyed
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    static boolean isChangingConfigurations(Activity activity) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            return activity.isChangingConfigurations();
+        }
+        return !activity.isFinishing();
+    }
+
 }
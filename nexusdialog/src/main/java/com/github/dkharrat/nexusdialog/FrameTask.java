@@ -0,0 +1,75 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Runs a task on the main thread at the next frame. On API 16+, the task is aligned with the display's vsync using
+ * {@link Choreographer}; on earlier versions, it is posted to the main thread instead.
+ */
+final class FrameTask {
+    private final Runnable task;
+    private Handler handler;
+    private FrameCallbackPoster frameCallbackPoster;
+
+    FrameTask(Runnable task) {
+        this.task = task;
+    }
+
+    /**
+     * Schedules the task to run at the next frame.
+     */
+    void post() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (frameCallbackPoster == null) {
+                frameCallbackPoster = new FrameCallbackPoster(task);
+            }
+            frameCallbackPoster.post();
+        } else {
+            if (handler == null) {
+                handler = new Handler(Looper.getMainLooper());
+            }
+            handler.post(task);
+        }
+    }
+
+    /**
+     * Cancels the task if it is scheduled.
+     */
+    void cancel() {
+        if (frameCallbackPoster != null) {
+            frameCallbackPoster.cancel();
+        }
+        if (handler != null) {
+            handler.removeCallbacks(task);
+        }
+    }
+
+    /**
+     * Runs a task on the next frame. Kept in a separate class so that {@link Choreographer} is only loaded on API 16+.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FrameCallbackPoster implements Choreographer.FrameCallback {
+        private final Runnable task;
+
+        FrameCallbackPoster(Runnable task) {
+            this.task = task;
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void cancel() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            task.run();
+        }
+    }
+}
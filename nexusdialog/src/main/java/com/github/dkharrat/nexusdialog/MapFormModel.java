@@ -4,7 +4,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 public final class MapFormModel extends FormModel {
-    private final Map<String,Object> data = new HashMap<>();
+    private Map<String,Object> data = new HashMap<>();
+    // whether data is referenced by a snapshot, in which case it must be copied before it is changed
+    private boolean dataShared = false;
 
     @Override
     public Object getBackingValue(String name) {
@@ -13,6 +15,22 @@ public final class MapFormModel extends FormModel {
 
     @Override
     public void setBackingValue(String name, Object value) {
+        if (dataShared) {
+            data = new HashMap<>(data);
+            dataShared = false;
+        }
         data.put(name, value);
     }
+
+    /**
+     * Returns an immutable snapshot of the current values of this model. Taking a snapshot does not copy the values; they
+     * are only copied once the model is changed afterwards. The snapshot can be read from any thread, e.g. to submit or
+     * save the form in the background while the user keeps editing it.
+     *
+     * @return a snapshot of the current values
+     */
+    public FormSnapshot snapshot() {
+        dataShared = true;
+        return new FormSnapshot(data);
+    }
 }
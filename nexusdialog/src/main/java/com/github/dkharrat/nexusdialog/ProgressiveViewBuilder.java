@@ -0,0 +1,129 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+
+import com.github.dkharrat.nexusdialog.controllers.LabeledFieldController;
+
+import java.util.List;
+
+/**
+ * Creates the views of a form's elements and adds them to a container across several frames, so that large forms are
+ * displayed without blocking the main thread until every view exists. The views that fill the first screen are created
+ * immediately; the remaining ones are created on the following frames, within a time budget per frame. If the form uses a
+ * {@link ViewPool}, the frames of labeled fields are inflated ahead of time on a background thread.
+ */
+class ProgressiveViewBuilder {
+    // the time spent creating views on each frame, which leaves enough of a 60 fps frame for layout and drawing
+    static final long FRAME_BUDGET_MS = 8;
+
+    private final ViewGroup containerView;
+    private final List<FormElementController> elements;
+    private final ViewPool viewPool;
+    private final ViewCreationListener listener;
+    private final FrameTask frameTask = new FrameTask(new Runnable() {
+        @Override public void run() {
+            buildNextViews();
+        }
+    });
+    private int nextIndex = 0;
+    private int remainingLabeledFields = 0;
+    private boolean cancelled = false;
+
+    /**
+     * Creates a builder for the views of the specified elements.
+     *
+     * @param containerView the container to add the views to, which must not contain views of other elements
+     * @param elements      the sections and elements of the form, in display order
+     * @param viewPool      the pool of views of the form, or null if views are not pooled
+     * @param listener      the listener to notify of the progress, or null
+     */
+    ProgressiveViewBuilder(ViewGroup containerView, List<FormElementController> elements, ViewPool viewPool,
+                           ViewCreationListener listener) {
+        this.containerView = containerView;
+        this.elements = elements;
+        this.viewPool = viewPool;
+        this.listener = listener;
+        for (FormElementController element : elements) {
+            if (element instanceof LabeledFieldController && !element.isViewCreated()) {
+                remainingLabeledFields++;
+            }
+        }
+    }
+
+    /**
+     * Creates the views that fill the container (or the screen, if the container has not been laid out yet), and
+     * schedules the creation of the remaining views.
+     */
+    void start() {
+        DisplayMetrics displayMetrics = containerView.getResources().getDisplayMetrics();
+        int targetHeight = containerView.getHeight() > 0 ? containerView.getHeight() : displayMetrics.heightPixels;
+        int widthSpec = containerView.getWidth() > 0
+                ? MeasureSpec.makeMeasureSpec(containerView.getWidth(), MeasureSpec.EXACTLY)
+                : MeasureSpec.makeMeasureSpec(displayMetrics.widthPixels, MeasureSpec.AT_MOST);
+        int heightSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+
+        int height = 0;
+        while (nextIndex < elements.size() && height < targetHeight) {
+            View view = addNextView();
+            view.measure(widthSpec, heightSpec);
+            height += view.getMeasuredHeight();
+        }
+        onViewsAdded();
+    }
+
+    /**
+     * Stops creating views. Views that were already added to the container are kept.
+     */
+    void cancel() {
+        cancelled = true;
+        frameTask.cancel();
+    }
+
+    private void buildNextViews() {
+        if (cancelled) {
+            return;
+        }
+
+        long startTime = SystemClock.uptimeMillis();
+        do {
+            addNextView();
+        } while (nextIndex < elements.size() && SystemClock.uptimeMillis() - startTime < FRAME_BUDGET_MS);
+        onViewsAdded();
+    }
+
+    private View addNextView() {
+        FormElementController element = elements.get(nextIndex);
+        if (element instanceof LabeledFieldController && !element.isViewCreated()) {
+            remainingLabeledFields--;
+        }
+
+        View view = element.getView();
+        FormController.attachView(containerView, view, nextIndex);
+        nextIndex++;
+        return view;
+    }
+
+    private void onViewsAdded() {
+        if (viewPool != null && remainingLabeledFields > 0) {
+            // inflate the frames of the next fields in the background while the main thread is idle
+            viewPool.prefetch(R.layout.form_labeled_element, remainingLabeledFields);
+        }
+
+        if (listener != null) {
+            listener.onProgress(nextIndex, elements.size());
+        }
+        if (cancelled) {
+            return;
+        }
+
+        if (nextIndex < elements.size()) {
+            frameTask.post();
+        } else if (listener != null) {
+            listener.onComplete();
+        }
+    }
+}
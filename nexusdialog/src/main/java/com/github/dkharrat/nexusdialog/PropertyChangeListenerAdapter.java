@@ -0,0 +1,34 @@
+package com.github.dkharrat.nexusdialog;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+/**
+ * Adapts a {@link PropertyChangeListener} to a {@link FieldChangeListener}. A {@link PropertyChangeEvent} is only created
+ * when a change is actually delivered to the listener. Two adapters are equal if they wrap the same listener, which allows
+ * removing a listener by passing the original {@code PropertyChangeListener}.
+ */
+class PropertyChangeListenerAdapter implements FieldChangeListener {
+    private final Object source;
+    private final PropertyChangeListener listener;
+
+    PropertyChangeListenerAdapter(Object source, PropertyChangeListener listener) {
+        this.source = source;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onFieldChanged(String fieldName, Object oldValue, Object newValue) {
+        listener.propertyChange(new PropertyChangeEvent(source, fieldName, oldValue, newValue));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PropertyChangeListenerAdapter && ((PropertyChangeListenerAdapter) o).listener.equals(listener);
+    }
+
+    @Override
+    public int hashCode() {
+        return listener.hashCode();
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesces the refreshes of form elements caused by model changes. The names of changed fields are collected and each
+ * affected element is refreshed at most once per frame. On API 16+, refreshes are aligned with the display's vsync using
+ * {@link Choreographer}; on earlier versions, they are posted to the main thread instead.
+ */
+class RefreshScheduler {
+    private final FormController formController;
+    private final Set<String> dirtyFields = new HashSet<String>();
+    // the dirty fields in the order they changed, swapped with refreshingFields on flush so that it doesn't allocate
+    private List<String> dirtyFieldOrder = new ArrayList<String>();
+    private List<String> refreshingFields = new ArrayList<String>();
+    private final Runnable flushRunnable = new Runnable() {
+        @Override public void run() {
+            flush();
+        }
+    };
+    private final FrameTask flushTask = new FrameTask(flushRunnable);
+    private boolean synchronous = false;
+    private boolean scheduled = false;
+
+    RefreshScheduler(FormController formController) {
+        this.formController = formController;
+    }
+
+    /**
+     * Sets whether elements are refreshed immediately when a field changes, instead of on the next frame.
+     *
+     * @param synchronous   if true, elements are refreshed immediately
+     */
+    void setSynchronous(boolean synchronous) {
+        this.synchronous = synchronous;
+        if (synchronous) {
+            flush();
+        }
+    }
+
+    boolean isSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * Marks the specified field as changed. The associated element will be refreshed on the next frame, or immediately
+     * if the scheduler is synchronous.
+     *
+     * @param fieldName the name of the field that changed
+     */
+    void scheduleRefresh(String fieldName) {
+        if (synchronous) {
+            formController.refreshElement(fieldName);
+            return;
+        }
+
+        if (dirtyFields.add(fieldName)) {
+            dirtyFieldOrder.add(fieldName);
+        }
+        if (!scheduled) {
+            scheduled = true;
+            flushTask.post();
+        }
+    }
+
+    /**
+     * Discards all pending refreshes. This is used when all elements have been refreshed anyway.
+     */
+    void cancel() {
+        dirtyFields.clear();
+        dirtyFieldOrder.clear();
+    }
+
+    /**
+     * Immediately refreshes the elements of all fields that changed since the last refresh.
+     */
+    void flush() {
+        scheduled = false;
+        if (dirtyFields.isEmpty()) {
+            return;
+        }
+
+        // refreshing an element can change other fields, which are then scheduled for the next frame
+        List<String> fieldNames = dirtyFieldOrder;
+        // a refresh may flush again, while the list of the outer flush is still being refreshed
+        dirtyFieldOrder = refreshingFields.isEmpty() ? refreshingFields : new ArrayList<String>();
+        refreshingFields = fieldNames;
+        dirtyFields.clear();
+        try {
+            for (int i = 0; i < fieldNames.size(); i++) {
+                formController.refreshElement(fieldNames.get(i));
+            }
+        } finally {
+            fieldNames.clear();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.github.dkharrat.nexusdialog;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * A {@link FormModel} that stores numeric, boolean and date values in primitive columns, indexed by the slots of a
+ * {@link FormSchema}. Values can be read and written without boxing through the typed accessors, such as
+ * {@link #getInt(int, int)} and {@link #setInt(int, int)}. Dates are stored as milliseconds since the epoch.
+ * <p/>
+ * The generic {@link #getValue(String)} and {@link #setValue(String, Object)} methods keep working: {@code Integer},
+ * {@code Long}, {@code Double}, {@code Boolean} and {@code Date} values are stored in the primitive columns, and any
+ * other value is stored as is. Reading a primitive value through {@link #getValue(String)} returns it boxed, or as a new
+ * {@code Date} for dates.
+ * <p/>
+ * Built-in form elements use the typed accessors when their model is a <code>TypedFormModel</code>. Numeric
+ * {@link com.github.dkharrat.nexusdialog.controllers.EditTextController}s store their value as an {@code Integer},
+ * {@code Long} or {@code Double} (instead of a {@code String}) when the input is a valid number.
+ */
+public final class TypedFormModel extends FormModel {
+    /** Indicates that no value is set for the field. */
+    public static final int TYPE_NULL = 0;
+    /** Indicates that the field stores an {@code int}. */
+    public static final int TYPE_INT = 1;
+    /** Indicates that the field stores a {@code long}. */
+    public static final int TYPE_LONG = 2;
+    /** Indicates that the field stores a {@code double}. */
+    public static final int TYPE_DOUBLE = 3;
+    /** Indicates that the field stores a {@code boolean}. */
+    public static final int TYPE_BOOLEAN = 4;
+    /** Indicates that the field stores a date, as milliseconds since the epoch. */
+    public static final int TYPE_DATE = 5;
+    /** Indicates that the field stores an object that has no primitive representation. */
+    public static final int TYPE_OBJECT = 6;
+
+    private final FormSchema schema;
+    private byte[] types;
+    private long[] bits;
+    private Object[] objects;
+
+    /**
+     * Creates a new model for the fields of the specified schema.
+     *
+     * @param schema    the schema that maps field names to slots
+     */
+    public TypedFormModel(FormSchema schema) {
+        this.schema = schema;
+        this.types = new byte[schema.size()];
+        this.bits = new long[schema.size()];
+        this.objects = new Object[schema.size()];
+    }
+
+    /**
+     * Returns the schema of this model.
+     *
+     * @return the schema of this model
+     */
+    public FormSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the type of the value currently stored at the specified slot.
+     *
+     * @param slot  the slot of the field
+     * @return      one of the {@code TYPE_} constants
+     */
+    public int getType(int slot) {
+        return slot >= 0 && slot < types.length ? types[slot] : TYPE_NULL;
+    }
+
+    /**
+     * Returns the value of the field at the specified slot. Primitive values are boxed.
+     *
+     * @param slot  the slot of the field
+     * @return      the value currently set for the field
+     */
+    public Object getValue(int slot) {
+        switch (getType(slot)) {
+            case TYPE_INT:      return (int) bits[slot];
+            case TYPE_LONG:     return bits[slot];
+            case TYPE_DOUBLE:   return Double.longBitsToDouble(bits[slot]);
+            case TYPE_BOOLEAN:  return bits[slot] != 0;
+            case TYPE_DATE:     return new Date(bits[slot]);
+            case TYPE_OBJECT:   return objects[slot];
+            default:            return null;
+        }
+    }
+
+    /**
+     * Sets the value of the field at the specified slot. Listeners are notified the same way as for
+     * {@link #setValue(String, Object)}.
+     *
+     * @param slot      the slot of the field, as returned by {@link FormSchema#getSlot(String)}
+     * @param newValue  the value to set
+     */
+    public void setValue(int slot, Object newValue) {
+        Object curValue = getValue(slot);
+        if (!objectsEqual(curValue, newValue)) {
+            storeValue(slot, newValue);
+            valueChanged(schema.getFieldName(slot), curValue, newValue);
+        }
+    }
+
+    /**
+     * Returns the {@code int} value of the field at the specified slot.
+     *
+     * @param slot          the slot of the field
+     * @param defaultValue  the value to return if the field does not store a number
+     * @return              the value of the field, converted to an {@code int} if needed
+     */
+    public int getInt(int slot, int defaultValue) {
+        switch (getType(slot)) {
+            case TYPE_INT:
+            case TYPE_LONG:     return (int) bits[slot];
+            case TYPE_DOUBLE:   return (int) Double.longBitsToDouble(bits[slot]);
+            default:            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the {@code long} value of the field at the specified slot.
+     *
+     * @param slot          the slot of the field
+     * @param defaultValue  the value to return if the field does not store a number
+     * @return              the value of the field, converted to a {@code long} if needed
+     */
+    public long getLong(int slot, long defaultValue) {
+        switch (getType(slot)) {
+            case TYPE_INT:
+            case TYPE_LONG:     return bits[slot];
+            case TYPE_DOUBLE:   return (long) Double.longBitsToDouble(bits[slot]);
+            default:            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the {@code double} value of the field at the specified slot.
+     *
+     * @param slot          the slot of the field
+     * @param defaultValue  the value to return if the field does not store a number
+     * @return              the value of the field, converted to a {@code double} if needed
+     */
+    public double getDouble(int slot, double defaultValue) {
+        switch (getType(slot)) {
+            case TYPE_INT:
+            case TYPE_LONG:     return bits[slot];
+            case TYPE_DOUBLE:   return Double.longBitsToDouble(bits[slot]);
+            default:            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the {@code boolean} value of the field at the specified slot.
+     *
+     * @param slot          the slot of the field
+     * @param defaultValue  the value to return if the field does not store a boolean
+     * @return              the value of the field
+     */
+    public boolean getBoolean(int slot, boolean defaultValue) {
+        return getType(slot) == TYPE_BOOLEAN ? bits[slot] != 0 : defaultValue;
+    }
+
+    /**
+     * Returns the date of the field at the specified slot, as milliseconds since the epoch.
+     *
+     * @param slot          the slot of the field
+     * @param defaultValue  the value to return if the field does not store a date
+     * @return              the date of the field
+     */
+    public long getDateMillis(int slot, long defaultValue) {
+        return getType(slot) == TYPE_DATE ? bits[slot] : defaultValue;
+    }
+
+    /**
+     * Sets an {@code int} value for the field at the specified slot.
+     *
+     * @param slot  the slot of the field
+     * @param value the value to set
+     */
+    public void setInt(int slot, int value) {
+        setPrimitive(slot, TYPE_INT, value);
+    }
+
+    /**
+     * Sets a {@code long} value for the field at the specified slot.
+     *
+     * @param slot  the slot of the field
+     * @param value the value to set
+     */
+    public void setLong(int slot, long value) {
+        setPrimitive(slot, TYPE_LONG, value);
+    }
+
+    /**
+     * Sets a {@code double} value for the field at the specified slot.
+     *
+     * @param slot  the slot of the field
+     * @param value the value to set
+     */
+    public void setDouble(int slot, double value) {
+        setPrimitive(slot, TYPE_DOUBLE, Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Sets a {@code boolean} value for the field at the specified slot.
+     *
+     * @param slot  the slot of the field
+     * @param value the value to set
+     */
+    public void setBoolean(int slot, boolean value) {
+        setPrimitive(slot, TYPE_BOOLEAN, value ? 1 : 0);
+    }
+
+    /**
+     * Sets a date for the field at the specified slot.
+     *
+     * @param slot      the slot of the field
+     * @param millis    the date to set, as milliseconds since the epoch
+     */
+    public void setDateMillis(int slot, long millis) {
+        setPrimitive(slot, TYPE_DATE, millis);
+    }
+
+    /**
+     * Returns the {@code int} value of the specified field.
+     *
+     * @see #getInt(int, int)
+     */
+    public int getInt(String name, int defaultValue) {
+        return getInt(schema.getSlot(name), defaultValue);
+    }
+
+    /**
+     * Returns the {@code long} value of the specified field.
+     *
+     * @see #getLong(int, long)
+     */
+    public long getLong(String name, long defaultValue) {
+        return getLong(schema.getSlot(name), defaultValue);
+    }
+
+    /**
+     * Returns the {@code double} value of the specified field.
+     *
+     * @see #getDouble(int, double)
+     */
+    public double getDouble(String name, double defaultValue) {
+        return getDouble(schema.getSlot(name), defaultValue);
+    }
+
+    /**
+     * Returns the {@code boolean} value of the specified field.
+     *
+     * @see #getBoolean(int, boolean)
+     */
+    public boolean getBoolean(String name, boolean defaultValue) {
+        return getBoolean(schema.getSlot(name), defaultValue);
+    }
+
+    /**
+     * Returns the date of the specified field, as milliseconds since the epoch.
+     *
+     * @see #getDateMillis(int, long)
+     */
+    public long getDateMillis(String name, long defaultValue) {
+        return getDateMillis(schema.getSlot(name), defaultValue);
+    }
+
+    /**
+     * Sets an {@code int} value for the specified field.
+     *
+     * @see #setInt(int, int)
+     */
+    public void setInt(String name, int value) {
+        setInt(schema.addField(name), value);
+    }
+
+    /**
+     * Sets a {@code long} value for the specified field.
+     *
+     * @see #setLong(int, long)
+     */
+    public void setLong(String name, long value) {
+        setLong(schema.addField(name), value);
+    }
+
+    /**
+     * Sets a {@code double} value for the specified field.
+     *
+     * @see #setDouble(int, double)
+     */
+    public void setDouble(String name, double value) {
+        setDouble(schema.addField(name), value);
+    }
+
+    /**
+     * Sets a {@code boolean} value for the specified field.
+     *
+     * @see #setBoolean(int, boolean)
+     */
+    public void setBoolean(String name, boolean value) {
+        setBoolean(schema.addField(name), value);
+    }
+
+    /**
+     * Sets a date for the specified field, as milliseconds since the epoch.
+     *
+     * @see #setDateMillis(int, long)
+     */
+    public void setDateMillis(String name, long millis) {
+        setDateMillis(schema.addField(name), millis);
+    }
+
+    private void setPrimitive(int slot, int type, long value) {
+        if (getType(slot) == type && bits[slot] == value) {
+            return;
+        }
+
+        ensureCapacity(slot);
+        String name = schema.getFieldName(slot);
+        // only box the values if someone is interested in them
+        boolean boxValues = isValueObserved(name);
+        Object oldValue = boxValues ? getValue(slot) : null;
+
+        types[slot] = (byte) type;
+        bits[slot] = value;
+        objects[slot] = null;
+
+        valueChanged(name, oldValue, boxValues ? getValue(slot) : null);
+    }
+
+    @Override
+    protected Object getBackingValue(String name) {
+        int slot = schema.getSlot(name);
+        return slot >= 0 ? getValue(slot) : null;
+    }
+
+    @Override
+    protected void setBackingValue(String name, Object value) {
+        storeValue(schema.addField(name), value);
+    }
+
+    private void storeValue(int slot, Object value) {
+        ensureCapacity(slot);
+
+        objects[slot] = null;
+        if (value == null) {
+            types[slot] = TYPE_NULL;
+        } else if (value instanceof Integer) {
+            types[slot] = TYPE_INT;
+            bits[slot] = (Integer) value;
+        } else if (value instanceof Long) {
+            types[slot] = TYPE_LONG;
+            bits[slot] = (Long) value;
+        } else if (value instanceof Double) {
+            types[slot] = TYPE_DOUBLE;
+            bits[slot] = Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Boolean) {
+            types[slot] = TYPE_BOOLEAN;
+            bits[slot] = (Boolean) value ? 1 : 0;
+        } else if (value.getClass() == Date.class) {
+            types[slot] = TYPE_DATE;
+            bits[slot] = ((Date) value).getTime();
+        } else {
+            types[slot] = TYPE_OBJECT;
+            objects[slot] = value;
+        }
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot >= types.length) {
+            int capacity = Math.max(slot + 1, schema.size());
+            types = Arrays.copyOf(types, capacity);
+            bits = Arrays.copyOf(bits, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+    }
+}
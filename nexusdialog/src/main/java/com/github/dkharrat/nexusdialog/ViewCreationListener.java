@@ -0,0 +1,22 @@
+package com.github.dkharrat.nexusdialog;
+
+/**
+ * A listener that gets notified as the views of a form are created progressively by
+ * {@link FormController#recreateViewsProgressively}. Methods are called on the main thread.
+ */
+public interface ViewCreationListener {
+    /**
+     * Called after a group of views has been created and added to the form's container, including the first screenful of
+     * views that is created before <code>recreateViewsProgressively</code> returns.
+     *
+     * @param createdCount  the number of views created so far, including sections
+     * @param totalCount    the total number of views of the form, including sections
+     */
+    void onProgress(int createdCount, int totalCount);
+
+    /**
+     * Called once the views of all the elements of the form have been created. It is not called if the creation was
+     * cancelled, e.g. because the views of the form were destroyed or recreated in the meantime.
+     */
+    void onComplete();
+}
@@ -0,0 +1,256 @@
+package com.github.dkharrat.nexusdialog;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pool of inflated views that are reused by form elements instead of inflating their layout again, such as the frame
+ * containing the label and field of a labeled element. Views are pooled by layout, and are released to the pool when the
+ * view of an element is destroyed, e.g. when it is scrolled away in a <code>RecyclerView</code>, when it is removed from
+ * its form, or when the form's Activity is destroyed.
+ * <p/>
+ * Pooled views are inflated with the application context wrapped in the theme of the Activity they are displayed in, so
+ * that they are styled like the rest of the Activity, and a pool can outlive the Activity without leaking it. Since views
+ * of different themes can't be mixed, there is a shared pool per theme. The pool holds a bounded number of views per
+ * layout, and is emptied when the system is running low on memory or when the configuration changes (on API 14+). Views
+ * acquired before a configuration change are not taken back afterwards, since they were inflated with the resources of the
+ * previous configuration.
+ * <p/>
+ * Pools must only be used from the main thread. To use the shared pool for a form:
+ * <pre>
+ *     formController.setViewPool(ViewPool.getSharedPool(activity));
+ * </pre>
+ */
+public final class ViewPool {
+    /**
+     * The maximum number of views per layout that are kept by the shared pool.
+     */
+    public static final int DEFAULT_MAX_VIEWS_PER_LAYOUT = 32;
+
+    private static final Map<Integer,ViewPool> sharedPools = new HashMap<Integer,ViewPool>();
+
+    private final Context context;
+    private final int maxViewsPerLayout;
+    private final Map<Integer,List<View>> viewsByLayout = new HashMap<Integer,List<View>>();
+    // the number of views being inflated in the background, by layout
+    private final Map<Integer,Integer> pendingByLayout = new HashMap<Integer,Integer>();
+    private AsyncLayoutInflater asyncInflater;
+    // incremented when the configuration changes, so that views acquired before are not released into the pool
+    private int generation = 0;
+    private final AsyncLayoutInflater.OnInflateFinishedListener prefetchListener =
+            new AsyncLayoutInflater.OnInflateFinishedListener() {
+        @Override
+        public void onInflateFinished(View view, int layoutResId, ViewGroup parent) {
+            Integer pending = pendingByLayout.get(layoutResId);
+            if (pending != null && pending > 0) {
+                pendingByLayout.put(layoutResId, pending - 1);
+                release(layoutResId, view);
+            }
+        }
+    };
+
+    private ViewPool(Context context, int themeResId, int maxViewsPerLayout) {
+        Context applicationContext = context.getApplicationContext();
+        this.context = new ContextThemeWrapper(applicationContext, themeResId);
+        this.maxViewsPerLayout = maxViewsPerLayout;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            applicationContext.registerComponentCallbacks(new MemoryTrimmer(this));
+        }
+    }
+
+    /**
+     * Returns the pool shared by all forms of the process that are displayed with the theme of the specified context,
+     * creating it if needed. The theme is the one declared for the Activity in the manifest, or the application's theme
+     * if the context is not an Activity. Activities that set their theme at runtime should use
+     * {@link #getSharedPool(Context, int)} instead.
+     *
+     * @param context   the context the form is displayed in, typically its Activity
+     * @return          the shared pool
+     */
+    public static ViewPool getSharedPool(Context context) {
+        return getSharedPool(context, getThemeResId(context));
+    }
+
+    /**
+     * Returns the pool shared by all forms of the process that are displayed with the specified theme, creating it if
+     * needed.
+     *
+     * @param context       any Android context
+     * @param themeResId    the resource ID of the theme that pooled views are inflated with
+     * @return              the shared pool
+     */
+    public static ViewPool getSharedPool(Context context, int themeResId) {
+        ViewPool pool = sharedPools.get(themeResId);
+        if (pool == null) {
+            pool = new ViewPool(context, themeResId, DEFAULT_MAX_VIEWS_PER_LAYOUT);
+            sharedPools.put(themeResId, pool);
+        }
+        return pool;
+    }
+
+    private static int getThemeResId(Context context) {
+        Context base = context;
+        while (!(base instanceof Activity) && base instanceof ContextWrapper) {
+            base = ((ContextWrapper) base).getBaseContext();
+        }
+        if (base instanceof Activity) {
+            Activity activity = (Activity) base;
+            try {
+                // falls back to the application's theme if the Activity doesn't declare one
+                return activity.getPackageManager().getActivityInfo(activity.getComponentName(), 0).getThemeResource();
+            } catch (PackageManager.NameNotFoundException e) {
+                // not declared in the manifest, so it has the application's theme
+            }
+        }
+        return context.getApplicationInfo().theme;
+    }
+
+    /**
+     * Returns a view of the specified layout, taken from the pool if one is available, or inflated otherwise. The view
+     * has no parent.
+     *
+     * @param layoutResId   the resource ID of the layout
+     * @return              a view of the specified layout
+     */
+    public View acquire(int layoutResId) {
+        List<View> views = viewsByLayout.get(layoutResId);
+        View view;
+        if (views != null && !views.isEmpty()) {
+            view = views.remove(views.size() - 1);
+        } else {
+            view = LayoutInflater.from(context).inflate(layoutResId, null);
+        }
+        view.setTag(R.id.view_pool_generation, generation);
+        return view;
+    }
+
+    /**
+     * Returns a view to the pool, so that it can be reused by another element. The view is removed from its parent. The
+     * caller must reset any state that it set on the view, and must not use the view anymore. Views that were acquired
+     * before the last configuration change are dropped instead of being pooled.
+     *
+     * @param layoutResId   the resource ID of the layout that the view was inflated from
+     * @param view          a view that was returned by {@link #acquire}
+     */
+    public void release(int layoutResId, View view) {
+        if (view.getParent() != null) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        Object viewGeneration = view.getTag(R.id.view_pool_generation);
+        if (viewGeneration != null && (Integer) viewGeneration != generation) {
+            return;
+        }
+
+        List<View> views = viewsByLayout.get(layoutResId);
+        if (views == null) {
+            views = new ArrayList<View>();
+            viewsByLayout.put(layoutResId, views);
+        }
+        if (views.size() < maxViewsPerLayout) {
+            views.add(view);
+        }
+    }
+
+    /**
+     * Inflates views of the specified layout on a background thread, and adds them to the pool as they become available,
+     * so that later calls to {@link #acquire} don't need to inflate them on the main thread. Views that are already pooled
+     * or being inflated count towards the requested number, and the pool's size limit applies.
+     *
+     * @param layoutResId   the resource ID of the layout
+     * @param count         the number of views of the layout that should be available
+     */
+    public void prefetch(int layoutResId, int count) {
+        List<View> views = viewsByLayout.get(layoutResId);
+        Integer pending = pendingByLayout.get(layoutResId);
+        int available = (views != null ? views.size() : 0) + (pending != null ? pending : 0);
+        int missing = Math.min(count, maxViewsPerLayout) - available;
+        if (missing <= 0) {
+            return;
+        }
+
+        if (asyncInflater == null) {
+            asyncInflater = new AsyncLayoutInflater(context);
+        }
+        pendingByLayout.put(layoutResId, (pending != null ? pending : 0) + missing);
+        for (int i = 0; i < missing; i++) {
+            asyncInflater.inflate(layoutResId, null, prefetchListener);
+        }
+    }
+
+    /**
+     * Returns the number of views currently kept in this pool, for all layouts.
+     *
+     * @return the number of pooled views
+     */
+    public int size() {
+        int size = 0;
+        for (List<View> views : viewsByLayout.values()) {
+            size += views.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all views from this pool.
+     */
+    public void clear() {
+        viewsByLayout.clear();
+        // views that are still being inflated are discarded once they are available
+        pendingByLayout.clear();
+    }
+
+    /**
+     * Empties the pool after a configuration change, and makes it drop the views that were acquired before.
+     */
+    private void onConfigurationChanged() {
+        generation++;
+        clear();
+    }
+
+    /**
+     * Empties the pool when the system signals memory pressure or a configuration change. Kept in a separate class so that
+     * {@link ComponentCallbacks2} is only loaded on API 14+.
+     */
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    private static class MemoryTrimmer implements ComponentCallbacks2 {
+        private final ViewPool pool;
+
+        MemoryTrimmer(ViewPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                pool.clear();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            pool.clear();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+            // pooled views were inflated with the resources of the previous configuration
+            pool.onConfigurationChanged();
+        }
+    }
+}
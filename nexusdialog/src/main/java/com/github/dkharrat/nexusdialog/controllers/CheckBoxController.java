@@ -24,9 +24,11 @@ import java.util.Set;
  * selection can be represented by returning {@code null} for the value of the field.
  */
 public class CheckBoxController extends LabeledFieldController {
-    private final int CHECKBOX_ID = FormController.generateViewId();
+    // the checkboxes use consecutive IDs, starting from this one
+    private final int firstCheckBoxId;
     private final List<String> items;
     private final List<?> values;
+    private CheckBox[] checkBoxes;
 
     /**
      * Constructs a new instance of a checkboxes field.
@@ -60,6 +62,7 @@ public class CheckBoxController extends LabeledFieldController {
         super(ctx, name, labelText, validators);
         this.items = items;
         this.values = values;
+        this.firstCheckBoxId = items.isEmpty() ? View.NO_ID : FormController.generateViewIds(items.size());
 
         if(values != null && items.size() != values.size()) {
             throw new IllegalArgumentException("Size of Values and Items must be equal.");
@@ -99,6 +102,7 @@ public class CheckBoxController extends LabeledFieldController {
         super(ctx, name, labelText, isRequired);
         this.items = items;
         this.values = values;
+        this.firstCheckBoxId = items.isEmpty() ? View.NO_ID : FormController.generateViewIds(items.size());
 
         if(values != null && items.size() != values.size()) {
             throw new IllegalArgumentException("Size of Values and Items must be equal.");
@@ -112,14 +116,15 @@ public class CheckBoxController extends LabeledFieldController {
 
         CheckBox checkBox;
         int nbItem = items.size();
+        checkBoxes = new CheckBox[nbItem];
         for (int index = 0; index < nbItem; index++) {
             checkBox = new CheckBox(getContext());
             checkBox.setText(items.get(index));
-            checkBox.setId(CHECKBOX_ID + index);
+            checkBox.setId(firstCheckBoxId + index);
             checkBox.setOnCheckedChangeListener(new CheckBox.OnCheckedChangeListener() {
                 @Override
                 public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                    int position = buttonView.getId() - CHECKBOX_ID;
+                    int position = buttonView.getId() - firstCheckBoxId;
                     Object value = areValuesDefined() ? values.get(position): position;
                     Set<Object> modelValues = new HashSet<>(retrieveModelValues());
                     if (isChecked) {
@@ -127,18 +132,28 @@ public class CheckBoxController extends LabeledFieldController {
                     } else {
                         modelValues.remove(value);
                     }
-                    getModel().setValue(getName(), modelValues);
+                    setModelValue(modelValues);
                 }
             });
 
             checkboxContainer.addView(checkBox);
+            checkBoxes[index] = checkBox;
             refresh(checkBox, index);
         }
         return checkboxContainer;
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        checkBoxes = null;
+    }
+
     public void refresh(CheckBox checkbox, int index) {
-        Set<Object> modelValues = retrieveModelValues();
+        refresh(checkbox, index, retrieveModelValues());
+    }
+
+    private void refresh(CheckBox checkbox, int index, Set<Object> modelValues) {
         checkbox.setChecked(
                 modelValues.contains(
                         areValuesDefined() ? values.get(index) : index
@@ -148,16 +163,34 @@ public class CheckBoxController extends LabeledFieldController {
 
     @Override
     public void refresh() {
-        ViewGroup layout = getContainer();
+        if (checkBoxes == null) {
+            getView();  // creating the view sets them
+        }
 
-        CheckBox checkbox;
-        int nbItem = items.size();
-        for (int index = 0; index < nbItem; index++) {
-            checkbox = (CheckBox) layout.findViewById(CHECKBOX_ID + index);
-            refresh(checkbox, index);
+        Set<Object> modelValues = retrieveModelValues();
+        for (int index = 0; index < checkBoxes.length; index++) {
+            refresh(checkBoxes[index], index, modelValues);
         }
     }
 
+    /**
+     * Returns the items displayed as checkboxes.
+     *
+     * @return the labels of the checkboxes, in the order they are displayed
+     */
+    public List<String> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the values stored in the model for the selected items, in the same order as the items.
+     *
+     * @return the values of the items, or {@code null} if the model stores the indices of the selected items
+     */
+    public List<?> getValues() {
+        return values;
+    }
+
     /**
      * Returns the status of the values entry.
      *
@@ -173,19 +206,10 @@ public class CheckBoxController extends LabeledFieldController {
      * @return The values from the model.
      */
     private Set<Object> retrieveModelValues() {
-        Set<Object> modelValues = (Set<Object>) getModel().getValue(getName());
+        Set<Object> modelValues = (Set<Object>) getModelValue();
         if (modelValues == null) {
             modelValues = new HashSet<>();
         }
         return modelValues;
     }
-
-    /**
-     * Returns the View containing the checkboxes.
-     *
-     * @return The View containing the checkboxes.
-     */
-    private ViewGroup getContainer() {
-        return (ViewGroup) getView().findViewById(R.id.form_checkbox_container);
-    }
 }
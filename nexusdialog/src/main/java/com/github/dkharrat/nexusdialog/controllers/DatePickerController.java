@@ -20,6 +20,7 @@ import android.widget.DatePicker;
 import android.widget.EditText;
 
 import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.TypedFormModel;
 import com.github.dkharrat.nexusdialog.validations.InputValidator;
 
 /**
@@ -30,10 +31,12 @@ import com.github.dkharrat.nexusdialog.validations.InputValidator;
  */
 public class DatePickerController extends LabeledFieldController {
     private final int editTextId = FormController.generateViewId();
+    private EditText editText;
 
     private DatePickerDialog datePickerDialog = null;
     private final SimpleDateFormat displayFormat;
     private final TimeZone timeZone;
+    private final Date displayDate = new Date();   // reused to format dates stored in a TypedFormModel
 
     /**
      * Constructs a new instance of a date picker field.
@@ -100,19 +103,24 @@ public class DatePickerController extends LabeledFieldController {
             }
         });
 
+        this.editText = editText;
         return editText;
     }
 
     private void showDatePickerDialog(final Context context, final EditText editText) {
         // don't show dialog again if it's already being shown
         if (datePickerDialog == null) {
-            Date date = (Date)getModel().getValue(getName());
-            if (date == null) {
-                date = new Date();
-            }
             Calendar calendar = Calendar.getInstance(Locale.getDefault());
             calendar.setTimeZone(timeZone);
-            calendar.setTime(date);
+            TypedFormModel typedModel = getTypedModel();
+            if (typedModel != null) {
+                calendar.setTimeInMillis(typedModel.getDateMillis(getModelSlot(), System.currentTimeMillis()));
+            } else {
+                Date date = (Date)getModelValue();
+                if (date != null) {
+                    calendar.setTime(date);
+                }
+            }
 
             datePickerDialog = new DatePickerDialog(context, new OnDateSetListener() {
                 @Override
@@ -120,7 +128,12 @@ public class DatePickerController extends LabeledFieldController {
                     Calendar calendar = Calendar.getInstance(Locale.getDefault());
                     calendar.setTimeZone(timeZone);
                     calendar.set(year, monthOfYear, dayOfMonth);
-                    getModel().setValue(getName(), calendar.getTime());
+                    TypedFormModel typedModel = getTypedModel();
+                    if (typedModel != null) {
+                        typedModel.setDateMillis(getModelSlot(), calendar.getTimeInMillis());
+                    } else {
+                        setModelValue(calendar.getTime());
+                    }
                     editText.setText(displayFormat.format(calendar.getTime()));
 
                 }
@@ -137,12 +150,38 @@ public class DatePickerController extends LabeledFieldController {
         }
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        editText = null;
+        // the dialog belongs to the context of the released view, so a new one is created when needed
+        if (datePickerDialog != null) {
+            datePickerDialog.setOnDismissListener(null);
+            datePickerDialog = null;
+        }
+    }
+
     private EditText getEditText() {
-        return (EditText)getView().findViewById(editTextId);
+        if (editText == null) {
+            getView();  // creating the view sets it
+        }
+        return editText;
     }
 
     private void refresh(EditText editText) {
-        Date value = (Date)getModel().getValue(getName());
+        TypedFormModel typedModel = getTypedModel();
+        Date value;
+        if (typedModel != null) {
+            int slot = getModelSlot();
+            if (typedModel.getType(slot) == TypedFormModel.TYPE_DATE) {
+                displayDate.setTime(typedModel.getDateMillis(slot, 0));
+                value = displayDate;
+            } else {
+                value = null;
+            }
+        } else {
+            value = (Date)getModelValue();
+        }
         editText.setText(value != null ? displayFormat.format(value) : "");
     }
 
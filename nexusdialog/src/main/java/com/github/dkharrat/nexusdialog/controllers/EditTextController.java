@@ -8,6 +8,7 @@ import android.view.View;
 import android.widget.EditText;
 
 import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.TypedFormModel;
 import com.github.dkharrat.nexusdialog.validations.InputValidator;
 
 import java.util.Set;
@@ -17,6 +18,7 @@ import java.util.Set;
  */
 public class EditTextController extends LabeledFieldController {
     private final int editTextId = FormController.generateViewId();
+    private EditText editText;
 
     private int inputType;
     private final String placeholder;
@@ -110,7 +112,10 @@ public class EditTextController extends LabeledFieldController {
      * @return the EditText view associated with this element
      */
     public EditText getEditText() {
-        return (EditText)getView().findViewById(editTextId);
+        if (editText == null) {
+            getView();  // creating the view sets it
+        }
+        return editText;
     }
 
     /**
@@ -192,20 +197,105 @@ public class EditTextController extends LabeledFieldController {
 
             @Override
             public void afterTextChanged(Editable editable) {
-                getModel().setValue(getName(), editText.getText().toString());
+                TypedFormModel typedModel = getTypedModel();
+                getModel().beginTextInput();
+                try {
+                    if (typedModel != null && isNumeric()) {
+                        setNumericValue(typedModel, editText.getText().toString());
+                    } else {
+                        setModelValue(editText.getText().toString());
+                    }
+                } finally {
+                    getModel().endTextInput();
+                }
             }
         });
 
+        this.editText = editText;
         return editText;
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        editText = null;
+    }
+
+    private boolean isNumeric() {
+        return (inputType & InputType.TYPE_MASK_CLASS) == InputType.TYPE_CLASS_NUMBER;
+    }
+
+    private boolean isDecimal() {
+        return (inputType & InputType.TYPE_NUMBER_FLAG_DECIMAL) != 0;
+    }
+
+    /**
+     * Stores the input as a primitive number in the typed model. Input that is not a valid number (such as a lone minus
+     * sign while typing) is stored as a String, so that validators can still report it.
+     */
+    private void setNumericValue(TypedFormModel typedModel, String text) {
+        try {
+            if (isDecimal()) {
+                typedModel.setDouble(getModelSlot(), Double.parseDouble(text));
+            } else {
+                long number = Long.parseLong(text);
+                if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+                    typedModel.setInt(getModelSlot(), (int) number);
+                } else {
+                    typedModel.setLong(getModelSlot(), number);
+                }
+            }
+        } catch (NumberFormatException e) {
+            setModelValue(text);
+        }
+    }
+
     private void refresh(EditText editText) {
-        Object value = getModel().getValue(getName());
+        TypedFormModel typedModel = getTypedModel();
+        if (typedModel != null && refreshNumeric(typedModel, editText)) {
+            return;
+        }
+
+        Object value = getModelValue();
         String valueStr = value != null ? value.toString() : "";
         if (!valueStr.equals(editText.getText().toString()))
             editText.setText(valueStr);
     }
 
+    /**
+     * Refreshes the text from a number stored in the typed model. The text is left untouched if it already represents the
+     * same number (e.g. "1." while typing "1.5"), so that the user's input isn't reformatted.
+     *
+     * @return true if the model stores a number for this field, otherwise false
+     */
+    private boolean refreshNumeric(TypedFormModel typedModel, EditText editText) {
+        int slot = getModelSlot();
+        int type = typedModel.getType(slot);
+        if (type != TypedFormModel.TYPE_INT && type != TypedFormModel.TYPE_LONG && type != TypedFormModel.TYPE_DOUBLE) {
+            return false;
+        }
+
+        String text = editText.getText().toString();
+        try {
+            if (type == TypedFormModel.TYPE_DOUBLE) {
+                double value = typedModel.getDouble(slot, 0);
+                if (Double.parseDouble(text) != value) {
+                    editText.setText(Double.toString(value));
+                }
+            } else {
+                long value = typedModel.getLong(slot, 0);
+                if (Long.parseLong(text) != value) {
+                    editText.setText(Long.toString(value));
+                }
+            }
+        } catch (NumberFormatException e) {
+            editText.setText(type == TypedFormModel.TYPE_DOUBLE
+                    ? Double.toString(typedModel.getDouble(slot, 0))
+                    : Long.toString(typedModel.getLong(slot, 0)));
+        }
+        return true;
+    }
+
     @Override
     public void refresh() {
         refresh(getEditText());
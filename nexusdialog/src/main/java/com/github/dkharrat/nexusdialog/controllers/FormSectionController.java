@@ -13,8 +13,10 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.TextView;
 
+import com.github.dkharrat.nexusdialog.FormController;
 import com.github.dkharrat.nexusdialog.R;
 import com.github.dkharrat.nexusdialog.FormElementController;
+import com.github.dkharrat.nexusdialog.ViewPool;
 
 /**
  * Represents a section in a form. A form section represents a grouping of {@code FormElementController}s that are
@@ -24,6 +26,9 @@ import com.github.dkharrat.nexusdialog.FormElementController;
 public class FormSectionController extends FormElementController {
 
     private final String title;
+    private ViewPool viewPool;      // the pool that pooledView was taken from
+    private View pooledView;
+    private int pooledLayout;
     private final Map<String,FormElementController> elements = new HashMap<String,FormElementController>();
     private final List<FormElementController> orderedElements = new ArrayList<FormElementController>();
 
@@ -66,7 +71,8 @@ public class FormSectionController extends FormElementController {
     }
 
     /**
-     * Adds a form element to this section. Note that sub-sections are not supported.
+     * Adds a form element to this section. Note that sub-sections are not supported. Element names must be unique within
+     * the form that this section belongs to.
      *
      * @param element   the form element to add
      * @param position  the position at which to insert the element
@@ -77,11 +83,13 @@ public class FormSectionController extends FormElementController {
             throw new IllegalArgumentException("Sub-sections are not supported");
         }
 
-        if (elements.containsKey(element.getName())) {
+        FormController form = getFormController();
+        if (elements.containsKey(element.getName()) || (form != null && form.getElement(element.getName()) != null)) {
             throw new IllegalArgumentException("Element with that name already exists");
         } else {
             elements.put(element.getName(), element);
             orderedElements.add(position, element);
+            notifyElementAdded(element);
             return element;
         }
     }
@@ -116,7 +124,10 @@ public class FormSectionController extends FormElementController {
      */
     public FormElementController removeElement(String name) {
         FormElementController element = elements.remove(name);
-        orderedElements.remove(element);
+        if (element != null) {
+            orderedElements.remove(element);
+            notifyElementRemoved(element);
+        }
         return element;
     }
 
@@ -170,11 +181,9 @@ public class FormSectionController extends FormElementController {
 
     @Override
     protected View createView() {
-        LayoutInflater layoutInflater = LayoutInflater.from(getContext());
-
         View view;
         if (!TextUtils.isEmpty(getTitle())) {
-            view = layoutInflater.inflate(R.layout.form_section, null);
+            view = inflate(R.layout.form_section);
             view.setOnClickListener(null);
             view.setOnLongClickListener(null);
             view.setLongClickable(false);
@@ -182,16 +191,37 @@ public class FormSectionController extends FormElementController {
             final TextView sectionView = (TextView) view.findViewById(R.id.list_item_section_text);
             sectionView.setText(title);
         } else {
-            view = layoutInflater.inflate(R.layout.separator, null);
+            view = inflate(R.layout.separator);
         }
 
         return view;
     }
 
+    private View inflate(int layout) {
+        viewPool = getFormController() != null ? getFormController().getViewPool() : null;
+        if (viewPool != null) {
+            pooledView = viewPool.acquire(layout);
+            pooledLayout = layout;
+            return pooledView;
+        }
+        return LayoutInflater.from(getContext()).inflate(layout, null);
+    }
+
+    @Override
+    protected void onViewDestroyed() {
+        if (pooledView != null) {
+            viewPool.release(pooledLayout, pooledView);
+            pooledView = null;
+            viewPool = null;
+        }
+    }
+
     @Override
     public void refresh() {
         for (FormElementController element : orderedElements) {
-            element.refresh();
+            if (element.isViewCreated()) {
+                element.refresh();
+            }
         }
     }
 
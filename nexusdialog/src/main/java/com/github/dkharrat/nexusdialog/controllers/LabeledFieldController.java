@@ -3,14 +3,14 @@ package com.github.dkharrat.nexusdialog.controllers;
 import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
-import android.widget.FrameLayout;
-import android.widget.TextView;
 
 import com.github.dkharrat.nexusdialog.FormElementController;
 import com.github.dkharrat.nexusdialog.R;
+import com.github.dkharrat.nexusdialog.ViewPool;
 import com.github.dkharrat.nexusdialog.validations.InputValidator;
 import com.github.dkharrat.nexusdialog.validations.RequiredFieldValidator;
 import com.github.dkharrat.nexusdialog.validations.ValidationError;
+import com.github.dkharrat.nexusdialog.widgets.FormFieldLayout;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -24,7 +24,9 @@ public abstract class LabeledFieldController extends FormElementController {
     private static final RequiredFieldValidator REQUIRED_FIELD_VALIDATOR = new RequiredFieldValidator();
     private final String labelText;
     private View fieldView;
-    private TextView errorView;
+    private FormFieldLayout fieldLayout;
+    private ViewPool viewPool;      // the pool that fieldLayout was taken from, if any
+    private String errorMessage;
     private Set<InputValidator> validators;
 
     /**
@@ -115,7 +117,7 @@ public abstract class LabeledFieldController extends FormElementController {
      */
     public List<ValidationError> validateInput() {
         List<ValidationError> errors = new ArrayList<>();
-        Object value = getModel().getValue(getName());
+        Object value = getModelValue();
         ValidationError error;
         for (InputValidator validator : validators) {
             error = validator.validate(value, getName(), getLabel());
@@ -147,30 +149,38 @@ public abstract class LabeledFieldController extends FormElementController {
 
     @Override
     protected View createView() {
-        LayoutInflater inflater = (LayoutInflater)getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        View view = inflater.inflate(R.layout.form_labeled_element, null);
-        errorView = (TextView) view.findViewById(R.id.field_error);
-
-        TextView label = (TextView)view.findViewById(R.id.field_label);
-        if (labelText == null) {
-            label.setVisibility(View.GONE);
+        viewPool = getFormController() != null ? getFormController().getViewPool() : null;
+        if (viewPool != null) {
+            fieldLayout = (FormFieldLayout)viewPool.acquire(R.layout.form_labeled_element);
         } else {
-            label.setText(labelText);
+            LayoutInflater inflater = (LayoutInflater)getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+            fieldLayout = (FormFieldLayout)inflater.inflate(R.layout.form_labeled_element, null);
         }
 
-        FrameLayout container = (FrameLayout)view.findViewById(R.id.field_container);
-        container.addView(getFieldView());
+        fieldLayout.setLabel(labelText);
+        fieldLayout.setFieldView(getFieldView());
+        fieldLayout.setError(errorMessage);
+        return fieldLayout;
+    }
 
-        return view;
+    @Override
+    protected void onViewDestroyed() {
+        if (viewPool != null) {
+            // detach the field, which belongs to this element, so that another element can reuse the layout
+            fieldLayout.setFieldView(null);
+            fieldLayout.setError(null);
+            viewPool.release(R.layout.form_labeled_element, fieldLayout);
+            viewPool = null;
+        }
+        fieldView = null;
+        fieldLayout = null;
     }
 
     @Override
     public void setError(String message) {
-        if (message == null) {
-            errorView.setVisibility(View.GONE);
-        } else {
-            errorView.setText(message);
-            errorView.setVisibility(View.VISIBLE);
+        errorMessage = message;
+        if (fieldLayout != null) {
+            fieldLayout.setError(message);
         }
     }
 }
@@ -44,6 +44,7 @@ import com.github.dkharrat.nexusdialog.validations.InputValidator;
  */
 public class SearchableSelectionController extends LabeledFieldController {
     private final int editTextId = FormController.generateViewId();
+    private EditText editText;
 
     private final String placeholder;
     private boolean isFreeFormTextAllowed = true;
@@ -141,6 +142,7 @@ public class SearchableSelectionController extends LabeledFieldController {
             }
         });
 
+        this.editText = editText;
         return editText;
     }
 
@@ -225,7 +227,7 @@ public class SearchableSelectionController extends LabeledFieldController {
                     } else {
                         selection = itemsAdapter.getItem(position);
                     }
-                    getModel().setValue(getName(), selection);
+                    setModelValue(selection);
                     editText.setText(selection);
                     selectionDialog.dismiss();
                 }
@@ -246,12 +248,31 @@ public class SearchableSelectionController extends LabeledFieldController {
         }
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        editText = null;
+        // the dialogs belong to the context of the released view, so new ones are created when needed
+        loadItemsTask.runTaskOnFinished(null);
+        if (loadingIndicator != null) {
+            loadingIndicator.setOnDismissListener(null);
+            loadingIndicator = null;
+        }
+        if (selectionDialog != null) {
+            selectionDialog.setOnDismissListener(null);
+            selectionDialog = null;
+        }
+    }
+
     private EditText getEditText() {
-        return (EditText)getView().findViewById(editTextId);
+        if (editText == null) {
+            getView();  // creating the view sets it
+        }
+        return editText;
     }
 
     private void refresh(EditText editText) {
-        String value = (String)getModel().getValue(getName());
+        String value = (String)getModelValue();
         editText.setText(value != null ? value : "");
     }
 
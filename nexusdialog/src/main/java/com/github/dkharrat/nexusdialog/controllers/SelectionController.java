@@ -15,6 +15,7 @@ import android.widget.Spinner;
 import android.widget.TextView;
 
 import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.TypedFormModel;
 import com.github.dkharrat.nexusdialog.validations.InputValidator;
 
 /**
@@ -27,6 +28,7 @@ import com.github.dkharrat.nexusdialog.validations.InputValidator;
 public class SelectionController extends LabeledFieldController {
 
     private final int spinnerId = FormController.generateViewId();
+    private Spinner spinner;
 
     private final String prompt;
     private final List<String> items;
@@ -67,7 +69,7 @@ public class SelectionController extends LabeledFieldController {
         this.prompt = prompt;
         this.items = new ArrayList<>(items);
         this.items.add(prompt);     // last item is used for the 'prompt' by the SpinnerView
-        this.values = new ArrayList<>(values);
+        this.values = values != null ? new ArrayList<>(values) : null;
     }
 
     /**
@@ -105,7 +107,7 @@ public class SelectionController extends LabeledFieldController {
         this.prompt = prompt;
         this.items = new ArrayList<>(items);
         this.items.add(prompt);     // last item is used for the 'prompt' by the SpinnerView
-        this.values = new ArrayList<>(values);
+        this.values = values != null ? new ArrayList<>(values) : null;
     }
 
     /**
@@ -114,7 +116,10 @@ public class SelectionController extends LabeledFieldController {
      * @return the Spinner view associated with this element
      */
     public Spinner getSpinner() {
-        return (Spinner)getView().findViewById(spinnerId);
+        if (spinner == null) {
+            getView();  // creating the view sets it
+        }
+        return spinner;
     }
 
     @Override
@@ -148,6 +153,12 @@ public class SelectionController extends LabeledFieldController {
 
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int pos, long id) {
+                TypedFormModel typedModel = getTypedModel();
+                if (values == null && typedModel != null) {
+                    typedModel.setInt(getModelSlot(), pos);
+                    return;
+                }
+
                 Object value;
                 // if no values are specified, set the index on the model
                 if (values == null) {
@@ -161,7 +172,7 @@ public class SelectionController extends LabeledFieldController {
                     }
                 }
 
-                getModel().setValue(getName(), value);
+                setModelValue(value);
             }
 
             @Override
@@ -171,13 +182,26 @@ public class SelectionController extends LabeledFieldController {
 
         refresh(spinnerView);
 
+        spinner = spinnerView;
         return spinnerView;
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        spinner = null;
+    }
+
     private void refresh(Spinner spinner) {
-        Object value = getModel().getValue(getName());
         int selectionIndex = items.size()-1;    // index of last item shows the 'prompt'
 
+        TypedFormModel typedModel = getTypedModel();
+        if (values == null && typedModel != null) {
+            spinner.setSelection(typedModel.getInt(getModelSlot(), selectionIndex));
+            return;
+        }
+
+        Object value = getModelValue();
         if (values != null) {
             for (int i=0; i< values.size(); i++) {
                 if (values.get(i).equals(value)) {
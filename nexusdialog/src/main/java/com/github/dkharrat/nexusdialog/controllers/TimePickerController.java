@@ -9,6 +9,7 @@ import android.widget.EditText;
 import android.widget.TimePicker;
 
 import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.TypedFormModel;
 import com.github.dkharrat.nexusdialog.validations.InputValidator;
 
 import java.text.SimpleDateFormat;
@@ -20,10 +21,12 @@ import java.util.TimeZone;
 
 public class TimePickerController extends LabeledFieldController {
     private final int editTextId = FormController.generateViewId();
+    private EditText editText;
 
     private TimePickerDialog timePickerDialog = null;
     private final SimpleDateFormat displayFormat;
     private final TimeZone timeZone;
+    private final Date displayDate = new Date();   // reused to format dates stored in a TypedFormModel
     private final boolean is24HourView;
 
     /**
@@ -96,19 +99,24 @@ public class TimePickerController extends LabeledFieldController {
             }
         });
 
+        this.editText = editText;
         return editText;
     }
 
     private void showTimePickerDialog(Context context, final EditText editText) {
         // don't show dialog again if it's already being shown
         if (timePickerDialog == null) {
-            Date date = (Date)getModel().getValue(getName());
-            if (date == null) {
-                date = new Date();
-            }
             Calendar calendar = Calendar.getInstance(Locale.getDefault());
             calendar.setTimeZone(timeZone);
-            calendar.setTime(date);
+            TypedFormModel typedModel = getTypedModel();
+            if (typedModel != null) {
+                calendar.setTimeInMillis(typedModel.getDateMillis(getModelSlot(), System.currentTimeMillis()));
+            } else {
+                Date date = (Date)getModelValue();
+                if (date != null) {
+                    calendar.setTime(date);
+                }
+            }
 
             timePickerDialog = new TimePickerDialog(context, new TimePickerDialog.OnTimeSetListener() {
                 @Override
@@ -117,7 +125,12 @@ public class TimePickerController extends LabeledFieldController {
                     calendar.setTimeZone(timeZone);
                     calendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
                     calendar.set(Calendar.MINUTE, minute);
-                    getModel().setValue(getName(), calendar.getTime());
+                    TypedFormModel typedModel = getTypedModel();
+                    if (typedModel != null) {
+                        typedModel.setDateMillis(getModelSlot(), calendar.getTimeInMillis());
+                    } else {
+                        setModelValue(calendar.getTime());
+                    }
                     editText.setText(displayFormat.format(calendar.getTime()));
                 }
             }, calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), is24HourView);
@@ -133,12 +146,38 @@ public class TimePickerController extends LabeledFieldController {
         }
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        editText = null;
+        // the dialog belongs to the context of the released view, so a new one is created when needed
+        if (timePickerDialog != null) {
+            timePickerDialog.setOnDismissListener(null);
+            timePickerDialog = null;
+        }
+    }
+
     private EditText getEditText() {
-        return (EditText)getView().findViewById(editTextId);
+        if (editText == null) {
+            getView();  // creating the view sets it
+        }
+        return editText;
     }
 
     private void refresh(EditText editText) {
-        Date value = (Date)getModel().getValue(getName());
+        TypedFormModel typedModel = getTypedModel();
+        Date value;
+        if (typedModel != null) {
+            int slot = getModelSlot();
+            if (typedModel.getType(slot) == TypedFormModel.TYPE_DATE) {
+                displayDate.setTime(typedModel.getDateMillis(slot, 0));
+                value = displayDate;
+            } else {
+                value = null;
+            }
+        } else {
+            value = (Date)getModelValue();
+        }
         editText.setText(value != null ? displayFormat.format(value) : "");
     }
 
@@ -13,6 +13,7 @@ import com.github.dkharrat.nexusdialog.R;
  * will be used to display the value.
  */
 public class ValueController extends LabeledFieldController {
+    private TextView textView;
 
     /**
      * Constructs a new instance of a value field.
@@ -31,15 +32,25 @@ public class ValueController extends LabeledFieldController {
         final TextView textView = (TextView)layoutInflater.inflate(R.layout.value_field, null);
         refresh(textView);
 
+        this.textView = textView;
         return textView;
     }
 
+    @Override
+    protected void onViewDestroyed() {
+        super.onViewDestroyed();
+        textView = null;
+    }
+
     private TextView getTextView() {
-        return (TextView)getView().findViewById(R.id.value_text);
+        if (textView == null) {
+            getView();  // creating the view sets it
+        }
+        return textView;
     }
 
     private void refresh(TextView textView) {
-        Object value = getModel().getValue(getName());
+        Object value = getModelValue();
         textView.setText(value != null ? value.toString() : "");
     }
 
@@ -0,0 +1,423 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.FormElementController;
+import com.github.dkharrat.nexusdialog.FormModel;
+import com.github.dkharrat.nexusdialog.FormSchema;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes the values of a form in a compact binary format, intended for storing forms offline or sending them over slow
+ * networks. Fields are identified by their index in a schema derived from the form's elements, rather than by name, so
+ * a record can only be decoded by a codec created for the same form. Integers (including selection indices) are
+ * written as variable-length integers, the items selected in a {@link CheckBoxController} as a bitmap, and dates as the
+ * difference from the previous date in the record. Fields whose value is {@code null} are omitted.
+ * <p/>
+ * Records are decoded straight from a {@link ByteBuffer}, such as a memory-mapped file, without first copying them into
+ * an array.
+ */
+public final class FormBinaryCodec {
+    private static final int VERSION = 1;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INT = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_TRUE = 5;
+    private static final int TAG_FALSE = 6;
+    private static final int TAG_DATE = 7;
+    private static final int TAG_BITMAP = 8;
+    private static final int TAG_SET = 9;
+    private static final int TAG_LIST = 10;
+    private static final int TAG_BITS = 4;
+
+    private final FormSchema schema;
+    private final FormElementController[] elements;
+    private final int fingerprint;
+
+    /**
+     * Creates a codec for the fields of the specified form. The form must not be changed while the codec is used.
+     *
+     * @param controller    the form to encode and decode the values of
+     */
+    public FormBinaryCodec(FormController controller) {
+        this.schema = FormSchema.fromForm(controller);
+        this.elements = new FormElementController[schema.size()];
+        int hash = 0;
+        for (int slot = 0; slot < schema.size(); slot++) {
+            String name = schema.getFieldName(slot);
+            elements[slot] = controller.getElement(name);
+            hash = 31 * hash + name.hashCode();
+        }
+        this.fingerprint = hash;
+    }
+
+    /**
+     * Encodes the values of the form's fields.
+     *
+     * @param model the model to read the values from
+     * @return      the encoded record
+     */
+    public byte[] encode(FormModel model) {
+        Output out = new Output();
+        out.writeByte(VERSION);
+        out.writeInt(fingerprint);
+
+        for (int slot = 0; slot < elements.length; slot++) {
+            Object value = model.getValue(schema.getFieldName(slot));
+            if (value == null) {
+                continue;
+            }
+
+            int[] bitmapIndices = getBitmapIndices(elements[slot], value);
+            if (bitmapIndices != null) {
+                out.writeVarLong(((long) slot << TAG_BITS) | TAG_BITMAP);
+                writeBitmap(out, bitmapIndices);
+            } else {
+                out.writeVarLong(((long) slot << TAG_BITS) | getTag(value));
+                writePayload(out, value);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a record created by {@link #encode}. The record is read from the buffer's position to its limit, and the
+     * buffer's position is left unchanged.
+     *
+     * @param buffer    the buffer containing the record
+     * @return          a map of all the form's field names to their values, which are {@code null} for omitted fields
+     * @throws IllegalArgumentException if the record is malformed or was encoded for a different form
+     */
+    public Map<String,Object> decode(ByteBuffer buffer) {
+        try {
+            return decode(new Input(buffer.duplicate()));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated record", e);
+        }
+    }
+
+    private Map<String,Object> decode(Input in) {
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported record version: " + version);
+        }
+        if (in.readInt() != fingerprint) {
+            throw new IllegalArgumentException("Record was encoded for a different form");
+        }
+
+        Map<String,Object> values = new LinkedHashMap<String,Object>();
+        for (int slot = 0; slot < elements.length; slot++) {
+            values.put(schema.getFieldName(slot), null);
+        }
+        while (in.hasRemaining()) {
+            long header = in.readVarLong();
+            int tag = (int) (header & ((1 << TAG_BITS) - 1));
+            long slot = header >>> TAG_BITS;
+            if (slot >= elements.length) {
+                throw new IllegalArgumentException("Invalid field index: " + slot);
+            }
+
+            Object value = tag == TAG_BITMAP ? readBitmap(in, elements[(int) slot]) : readPayload(in, tag);
+            values.put(schema.getFieldName((int) slot), value);
+        }
+        return values;
+    }
+
+    /**
+     * Decodes a record created by {@link #encode} and sets the values of the form's fields within a single batch.
+     *
+     * @param buffer    the buffer containing the record
+     * @param model     the model to set the values of
+     */
+    public void decodeInto(ByteBuffer buffer, FormModel model) {
+        model.setValues(decode(buffer));
+    }
+
+    private static int getTag(Object value) {
+        if (value == null) {
+            return TAG_NULL;
+        } else if (value instanceof String) {
+            return TAG_STRING;
+        } else if (value instanceof Integer) {
+            return TAG_INT;
+        } else if (value instanceof Long) {
+            return TAG_LONG;
+        } else if (value instanceof Double) {
+            return TAG_DOUBLE;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? TAG_TRUE : TAG_FALSE;
+        } else if (value instanceof Date) {
+            return TAG_DATE;
+        } else if (value instanceof Set) {
+            return TAG_SET;
+        } else if (value instanceof List) {
+            return TAG_LIST;
+        }
+        throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+    }
+
+    private static void writePayload(Output out, Object value) {
+        switch (getTag(value)) {
+            case TAG_STRING: {
+                byte[] utf8 = ((String) value).getBytes(ValueCodec.UTF_8);
+                out.writeVarLong(utf8.length);
+                out.writeBytes(utf8, utf8.length);
+                break;
+            }
+            case TAG_INT:
+            case TAG_LONG:
+                out.writeVarLong(zigZag(((Number) value).longValue()));
+                break;
+            case TAG_DOUBLE:
+                out.writeLong(Double.doubleToLongBits((Double) value));
+                break;
+            case TAG_DATE: {
+                long millis = ((Date) value).getTime();
+                out.writeVarLong(zigZag(millis - out.lastDateMillis));
+                out.lastDateMillis = millis;
+                break;
+            }
+            case TAG_SET:
+            case TAG_LIST: {
+                Collection<?> collection = (Collection<?>) value;
+                out.writeVarLong(collection.size());
+                for (Object element : collection) {
+                    out.writeByte(getTag(element));
+                    writePayload(out, element);
+                }
+                break;
+            }
+            default:
+                // null and booleans are fully described by their tag
+                break;
+        }
+    }
+
+    private static Object readPayload(Input in, int tag) {
+        switch (tag) {
+            case TAG_NULL:      return null;
+            case TAG_STRING:    return in.readString(in.readLength());
+            case TAG_INT:       return (int) unZigZag(in.readVarLong());
+            case TAG_LONG:      return unZigZag(in.readVarLong());
+            case TAG_DOUBLE:    return Double.longBitsToDouble(in.readLong());
+            case TAG_TRUE:      return Boolean.TRUE;
+            case TAG_FALSE:     return Boolean.FALSE;
+            case TAG_DATE: {
+                long millis = in.lastDateMillis + unZigZag(in.readVarLong());
+                in.lastDateMillis = millis;
+                return new Date(millis);
+            }
+            case TAG_SET:
+            case TAG_LIST: {
+                int size = in.readLength();
+                Collection<Object> collection = tag == TAG_SET ? new HashSet<Object>() : new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    collection.add(readPayload(in, in.readByte()));
+                }
+                return collection;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown value tag: " + tag);
+        }
+    }
+
+    /**
+     * Returns the indices of the items selected in a checkbox field, or {@code null} if the value can't be represented
+     * as a bitmap of the field's items.
+     */
+    private static int[] getBitmapIndices(FormElementController element, Object value) {
+        if (!(element instanceof CheckBoxController) || !(value instanceof Set)) {
+            return null;
+        }
+
+        CheckBoxController checkBoxes = (CheckBoxController) element;
+        List<?> itemValues = checkBoxes.getValues();
+        int itemCount = checkBoxes.getItems().size();
+        Set<?> selected = (Set<?>) value;
+        int[] indices = new int[selected.size()];
+        int count = 0;
+        for (Object selectedValue : selected) {
+            int index;
+            if (itemValues != null) {
+                index = itemValues.indexOf(selectedValue);
+            } else {
+                index = selectedValue instanceof Integer ? (Integer) selectedValue : -1;
+            }
+            if (index < 0 || index >= itemCount) {
+                return null;
+            }
+            indices[count++] = index;
+        }
+        return indices;
+    }
+
+    private static void writeBitmap(Output out, int[] indices) {
+        int maxIndex = -1;
+        for (int index : indices) {
+            maxIndex = Math.max(maxIndex, index);
+        }
+
+        byte[] bitmap = new byte[(maxIndex + 8) / 8];
+        for (int index : indices) {
+            bitmap[index >> 3] |= 1 << (index & 7);
+        }
+        out.writeVarLong(bitmap.length);
+        out.writeBytes(bitmap, bitmap.length);
+    }
+
+    private static Set<Object> readBitmap(Input in, FormElementController element) {
+        if (!(element instanceof CheckBoxController)) {
+            throw new IllegalArgumentException("Bitmap for a field that is not a CheckBoxController: " + element.getName());
+        }
+        CheckBoxController checkBoxes = (CheckBoxController) element;
+        List<?> itemValues = checkBoxes.getValues();
+        int itemCount = checkBoxes.getItems().size();
+        int length = in.readLength();
+        Set<Object> selected = new HashSet<Object>();
+        for (int i = 0; i < length; i++) {
+            int bits = in.readByte();
+            for (int bit = 0; bit < 8; bit++) {
+                if ((bits & (1 << bit)) != 0) {
+                    int index = i * 8 + bit;
+                    if (index >= itemCount) {
+                        throw new IllegalArgumentException("Invalid item index: " + index);
+                    }
+                    selected.add(itemValues != null ? itemValues.get(index) : index);
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Output {
+        private byte[] bytes = new byte[256];
+        private int count = 0;
+        long lastDateMillis = 0;
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[count++] = (byte) b;
+        }
+
+        void writeBytes(byte[] b, int length) {
+            ensureCapacity(length);
+            System.arraycopy(b, 0, bytes, count, length);
+            count += length;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[count++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[count++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7fL) != 0) {
+                bytes[count++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[count++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, count);
+        }
+
+        private void ensureCapacity(int length) {
+            if (count + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+            }
+        }
+    }
+
+    private static class Input {
+        private final ByteBuffer buffer;
+        long lastDateMillis = 0;
+
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean hasRemaining() {
+            return buffer.hasRemaining();
+        }
+
+        int readByte() {
+            return buffer.get() & 0xff;
+        }
+
+        int readInt() {
+            return buffer.getInt();
+        }
+
+        long readLong() {
+            return buffer.getLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        int readLength() {
+            long length = readVarLong();
+            // a corrupt varint may have its sign bit set
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid length: " + length);
+            }
+            return (int) length;
+        }
+
+        String readString(int length) {
+            String value;
+            if (buffer.hasArray()) {
+                // decode straight from the backing array
+                value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, ValueCodec.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] utf8 = new byte[length];
+                buffer.get(utf8);
+                value = new String(utf8, ValueCodec.UTF_8);
+            }
+            return value;
+        }
+    }
+}
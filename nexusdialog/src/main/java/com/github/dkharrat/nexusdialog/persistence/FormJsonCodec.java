@@ -0,0 +1,194 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.FormElementController;
+import com.github.dkharrat.nexusdialog.FormModel;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+import com.github.dkharrat.nexusdialog.controllers.DatePickerController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.TimePickerController;
+import com.github.dkharrat.nexusdialog.utils.JsonStreamReader;
+import com.github.dkharrat.nexusdialog.utils.JsonStreamWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the values of a form to a JSON object, and reads them back, by streaming the fields of the form's elements
+ * without building a JSON tree in memory. Each element's field is written as a property of the object, in the order of
+ * the elements:
+ * <ul>
+ *     <li>strings, numbers and booleans are written as is</li>
+ *     <li>dates are written as milliseconds since the epoch</li>
+ *     <li>sets and lists (such as the values of a {@link CheckBoxController}) are written as arrays</li>
+ *     <li>other values are written using their {@code toString()} representation</li>
+ * </ul>
+ * When reading, properties that don't match an element of the form are ignored, and values are decoded according to the
+ * type of their element: numbers are read as dates for {@link DatePickerController}s and {@link TimePickerController}s,
+ * and arrays are read as sets for {@link CheckBoxController}s. Integral numbers are read as {@code Integer}s (or
+ * {@code Long}s if they don't fit), and other numbers as {@code Double}s.
+ */
+public final class FormJsonCodec {
+    private FormJsonCodec() {
+    }
+
+    /**
+     * Writes the values of all the elements of a form as a JSON object, encoded in UTF-8. The stream is flushed but not
+     * closed.
+     *
+     * @param controller    the controller of the form to write
+     * @param out           the stream to write to
+     */
+    public static void write(FormController controller, OutputStream out) throws IOException {
+        FormModel model = controller.getModel();
+        JsonStreamWriter writer = new JsonStreamWriter(new BufferedWriter(new OutputStreamWriter(out, ValueCodec.UTF_8)));
+        writer.beginObject();
+        for (FormSectionController section : controller.getSections()) {
+            for (FormElementController element : section.getElements()) {
+                writer.name(element.getName());
+                writeValue(writer, model.getValue(element.getName()));
+            }
+        }
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Reads a JSON object written by {@link #write} and sets the values of the form's fields. The values are set within a
+     * single batch. The stream is not closed.
+     *
+     * @param controller    the controller of the form to read the values into
+     * @param in            the stream to read from, encoded in UTF-8
+     */
+    public static void read(FormController controller, InputStream in) throws IOException {
+        controller.getModel().setValues(readValues(controller, in));
+    }
+
+    /**
+     * Reads a JSON object written by {@link #write}, without changing the form's values.
+     *
+     * @param controller    the controller of the form whose elements determine how values are decoded
+     * @param in            the stream to read from, encoded in UTF-8
+     * @return              a map of field names to their values
+     */
+    public static Map<String,Object> readValues(FormController controller, InputStream in) throws IOException {
+        JsonStreamReader reader = new JsonStreamReader(new BufferedReader(new InputStreamReader(in, ValueCodec.UTF_8)));
+        Map<String,Object> values = new LinkedHashMap<String,Object>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            FormElementController element = controller.getElement(name);
+            if (element == null) {
+                reader.skipValue();
+            } else {
+                values.put(name, readValue(reader, element));
+            }
+        }
+        reader.endObject();
+        return values;
+    }
+
+    private static void writeValue(JsonStreamWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof String) {
+            writer.value((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writer.value(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                writer.nullValue();
+            } else {
+                writer.value(number);
+            }
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else if (value instanceof Date) {
+            writer.value(((Date) value).getTime());
+        } else if (value instanceof Collection) {
+            writer.beginArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(writer, element);
+            }
+            writer.endArray();
+        } else {
+            writer.value(value.toString());
+        }
+    }
+
+    private static Object readValue(JsonStreamReader reader, FormElementController element) throws IOException {
+        JsonStreamReader.Token token = reader.peek();
+        if (token == JsonStreamReader.Token.NUMBER
+                && (element instanceof DatePickerController || element instanceof TimePickerController)) {
+            return new Date(reader.nextLong());
+        } else if (token == JsonStreamReader.Token.BEGIN_ARRAY && element instanceof CheckBoxController) {
+            Collection<Object> values = new HashSet<Object>();
+            readArray(reader, values);
+            return values;
+        }
+        return readValue(reader);
+    }
+
+    private static Object readValue(JsonStreamReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return parseNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case BEGIN_ARRAY: {
+                List<Object> values = new ArrayList<Object>();
+                readArray(reader, values);
+                return values;
+            }
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                // objects are never written by this codec
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static void readArray(JsonStreamReader reader, Collection<Object> values) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(readValue(reader));
+        }
+        reader.endArray();
+    }
+
+    private static Number parseNumber(String literal) throws IOException {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            try {
+                long value = Long.parseLong(literal);
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                // too large for a long, so read it as a double
+            }
+        }
+        try {
+            return Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number '" + literal + "'");
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import android.util.Log;
+
+import com.github.dkharrat.nexusdialog.FieldChangeListener;
+import com.github.dkharrat.nexusdialog.FormModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>FormModelJournal</code> persists the changes made to a {@link FormModel} to an append-only file, so that a draft of
+ * the form can be recovered after the app's process is killed. Each change is recorded when it happens, and records are
+ * written to disk in batches on a background thread, so that typing never blocks on disk I/O. Once the journal holds many
+ * more records than fields, it is compacted to contain a single record per field.
+ * <p/>
+ * Typical usage is to restore the journal into a new model and then attach it, so that subsequent changes are recorded:
+ * <pre>
+ *     journal = new FormModelJournal(new File(getFilesDir(), "draft.journal"));
+ *     journal.restore(model);
+ *     journal.attach(model);
+ * </pre>
+ * Once the form is submitted, {@link #clear()} discards the draft. Only values of the types stored by the built-in form
+ * elements are journaled; changes to fields holding other types are ignored.
+ * <p/>
+ * Recording a change only appends it to a list of pending records. The background thread takes the whole list at once and
+ * writes it, syncs and compacts the file without holding the lock that recording a change needs.
+ */
+public class FormModelJournal {
+    private static final String TAG = "FormModelJournal";
+    private static final int MAGIC = 0x4e444a31;        // "NDJ1"
+    private static final long FLUSH_DELAY_MS = 250;
+    private static final int MIN_RECORDS_TO_COMPACT = 1000;
+
+    private final File file;
+    // guards the pending records; only held briefly, since it is taken on the main thread for every change
+    private final Object lock = new Object();
+    // guards the file and the state of its contents; never held while recording a change
+    private final Object fileLock = new Object();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // guarded by lock
+    private List<Record> pendingRecords = new ArrayList<Record>();
+    private boolean flushScheduled = false;
+    private int generation = 0;     // incremented when the journal is cleared
+
+    // guarded by fileLock
+    private final Map<String,byte[]> latestRecords = new LinkedHashMap<String,byte[]>();
+    private int recordsInFile = 0;
+
+    private FormModel attachedModel;
+
+    /**
+     * Creates a journal stored in the specified file.
+     *
+     * @param file  the file to store the journal in. It is created when the first change is recorded.
+     */
+    public FormModelJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays the journal into the specified model. All the values are set within a single batch. The journal is replayed
+     * up to the first record that was only partially written (e.g. because the process was killed while writing) or that
+     * is corrupt, and is truncated there so that new records are not appended after it.
+     *
+     * @param model the model to restore the values into
+     * @throws IOException if the journal could not be read, or is not a journal
+     */
+    public void restore(FormModel model) throws IOException {
+        Map<String,Object> values = new LinkedHashMap<String,Object>();
+        synchronized (fileLock) {
+            latestRecords.clear();
+            recordsInFile = 0;
+            if (!file.exists()) {
+                return;
+            }
+
+            long fileLength = file.length();
+            long validLength = 0;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a form journal: " + file);
+                }
+                validLength = 4;
+                while (validLength < fileLength) {
+                    int length = in.readInt();
+                    if (length < 0 || length > fileLength - validLength - 4) {
+                        Log.w(TAG, "Ignoring journal from invalid record length " + length + " at offset " + validLength);
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+
+                    String name;
+                    Object value;
+                    try {
+                        DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record));
+                        name = ValueCodec.readString(recordIn);
+                        value = ValueCodec.readValue(recordIn);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Ignoring journal from corrupt record at offset " + validLength, e);
+                        break;
+                    }
+
+                    values.put(name, value);
+                    latestRecords.put(name, record);
+                    recordsInFile++;
+                    validLength += 4 + record.length;
+                }
+            } catch (EOFException e) {
+                // a truncated record at the end of the journal
+            } finally {
+                in.close();
+            }
+
+            if (validLength < fileLength) {
+                truncate(validLength);
+            }
+        }
+
+        model.setValues(values);
+    }
+
+    /**
+     * Starts recording the changes made to the specified model.
+     *
+     * @param model the model to record changes of
+     */
+    public void attach(FormModel model) {
+        detach();
+        attachedModel = model;
+        model.addFieldChangeListener(modelListener);
+    }
+
+    /**
+     * Stops recording changes of the attached model. Pending changes are still written.
+     */
+    public void detach() {
+        if (attachedModel != null) {
+            attachedModel.removeFieldChangeListener(modelListener);
+            attachedModel = null;
+        }
+    }
+
+    /**
+     * Writes all pending changes to disk, and waits until they have been written.
+     */
+    public void flush() {
+        try {
+            executor.submit(flushTask).get();
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to flush journal", e);
+        }
+    }
+
+    /**
+     * Discards the journal, including pending changes. This is typically called once the form has been submitted.
+     */
+    public void clear() {
+        synchronized (lock) {
+            pendingRecords = new ArrayList<Record>();
+            generation++;
+        }
+        executor.execute(new Runnable() {
+            @Override public void run() {
+                synchronized (fileLock) {
+                    latestRecords.clear();
+                    recordsInFile = 0;
+                    if (!file.delete() && file.exists()) {
+                        Log.w(TAG, "Failed to delete journal " + file);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Detaches from the model, writes pending changes, and releases the background thread. The journal cannot be used
+     * anymore after being closed.
+     */
+    public void close() {
+        detach();
+        flush();
+        executor.shutdown();
+    }
+
+    private void record(String name, Object value) {
+        if (!ValueCodec.isSupported(value)) {
+            Log.w(TAG, "Not journaling field '" + name + "' with unsupported value type " + value.getClass().getName());
+            return;
+        }
+
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(byteOut);
+            ValueCodec.writeString(out, name);
+            ValueCodec.writeValue(out, value);
+            bytes = byteOut.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);     // can't happen when writing to memory
+        }
+
+        synchronized (lock) {
+            pendingRecords.add(new Record(name, bytes));
+            if (!flushScheduled) {
+                flushScheduled = true;
+                // gives keystrokes in quick succession a chance to be written together
+                executor.schedule(flushTask, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private final FieldChangeListener modelListener = new FieldChangeListener() {
+        @Override public void onFieldChanged(String fieldName, Object oldValue, Object newValue) {
+            record(fieldName, newValue);
+        }
+    };
+
+    private final Runnable flushTask = new Runnable() {
+        @Override public void run() {
+            List<Record> records;
+            int recordsGeneration;
+            synchronized (lock) {
+                flushScheduled = false;
+                records = pendingRecords;
+                recordsGeneration = generation;
+                pendingRecords = new ArrayList<Record>();
+            }
+
+            synchronized (fileLock) {
+                long validLength = file.length();
+                try {
+                    writeRecords(records);
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to write journal " + file, e);
+                    discardPartialWrite(validLength);
+                    requeue(records, recordsGeneration);
+                    return;
+                }
+
+                // the records are synced at this point, so a failed compaction only leaves a larger journal behind
+                if (recordsInFile >= MIN_RECORDS_TO_COMPACT && recordsInFile > 2 * latestRecords.size()) {
+                    try {
+                        compact();
+                    } catch (IOException e) {
+                        Log.w(TAG, "Failed to compact journal " + file, e);
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * Puts records that could not be written back in front of the pending records, so that the next flush retries them,
+     * unless the journal was cleared in the meantime.
+     */
+    private void requeue(List<Record> records, int recordsGeneration) {
+        synchronized (lock) {
+            if (generation == recordsGeneration) {
+                records.addAll(pendingRecords);
+                pendingRecords = records;
+            }
+        }
+    }
+
+    /**
+     * Truncates the journal back to the length it had before a failed write, so that records written partially are not
+     * followed by the retried ones.
+     */
+    private void discardPartialWrite(long validLength) {
+        try {
+            if (file.exists() && file.length() > validLength) {
+                truncate(validLength);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to truncate journal " + file, e);
+        }
+    }
+
+    private void writeRecords(List<Record> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        boolean isNewFile = !file.exists() || file.length() == 0;
+        FileOutputStream fileOut = new FileOutputStream(file, true);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            if (isNewFile) {
+                out.writeInt(MAGIC);
+            }
+            for (Record record : records) {
+                writeRecord(out, record.bytes);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        } finally {
+            fileOut.close();
+        }
+
+        for (Record record : records) {
+            latestRecords.put(record.name, record.bytes);
+        }
+        recordsInFile += records.size();
+    }
+
+    /**
+     * Rewrites the journal so that it only contains the latest record of each field. The compacted journal is written to a
+     * temporary file first, so that a crash during compaction leaves the previous journal intact.
+     */
+    private void compact() throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(tempFile);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            out.writeInt(MAGIC);
+            for (byte[] record : latestRecords.values()) {
+                writeRecord(out, record);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        } finally {
+            fileOut.close();
+        }
+
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Failed to replace journal " + file);
+        }
+        recordsInFile = latestRecords.size();
+    }
+
+    private void truncate(long length) throws IOException {
+        if (length == 0) {
+            if (!file.delete()) {
+                throw new IOException("Failed to delete journal " + file);
+            }
+            return;
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] record) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    /**
+     * The encoded change of a field, waiting to be written.
+     */
+    private static final class Record {
+        final String name;
+        final byte[] bytes;
+
+        Record(String name, byte[] bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.FormElementController;
+import com.github.dkharrat.nexusdialog.FormModel;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>SavedFormState</code> stores the values of a form in a compact binary snapshot that can be put in a {@code Bundle},
+ * so that they survive the app's process being killed while in the background. Field names and string values are stored
+ * once in a string table and referenced by index, and each value is tagged with its type.
+ * <p/>
+ * {@link com.github.dkharrat.nexusdialog.FormActivity}, {@link com.github.dkharrat.nexusdialog.FormWithAppCompatActivity}
+ * and {@link com.github.dkharrat.nexusdialog.FormFragment} save and restore their form's state automatically. Only the
+ * fields of the form's elements are saved, and only values of the types stored by the built-in form elements.
+ */
+public final class SavedFormState {
+    private static final String TAG = "SavedFormState";
+    private static final int VERSION = 1;
+
+    /**
+     * The maximum size of a snapshot that is put in a {@code Bundle}. Saved state is sent through a Binder transaction,
+     * which is limited to 1MB for all of the app's in-flight transactions, so larger snapshots are dropped rather than
+     * risking a {@code TransactionTooLargeException}.
+     */
+    public static final int MAX_BUNDLE_SIZE = 256 * 1024;
+
+    private SavedFormState() {
+    }
+
+    /**
+     * Saves the values of all the elements of a form into the specified {@code Bundle}.
+     *
+     * @param controller    the controller of the form to save
+     * @param outState      the {@code Bundle} to save the state into
+     * @param key           the key to store the snapshot under
+     */
+    public static void save(FormController controller, Bundle outState, String key) {
+        byte[] data = toByteArray(controller.getModel(), getFieldNames(controller));
+        if (data.length > MAX_BUNDLE_SIZE) {
+            Log.w(TAG, "Not saving form state of " + data.length + " bytes, which exceeds " + MAX_BUNDLE_SIZE + " bytes");
+            return;
+        }
+        outState.putByteArray(key, data);
+    }
+
+    /**
+     * Restores the values saved by {@link #save} into the model of the specified form. The values are set within a
+     * single batch. Nothing is restored if the {@code Bundle} is null or does not contain a snapshot.
+     *
+     * @param controller    the controller of the form to restore
+     * @param savedState    the {@code Bundle} to restore the state from, or null
+     * @param key           the key the snapshot is stored under
+     */
+    public static void restore(FormController controller, Bundle savedState, String key) {
+        byte[] data = savedState != null ? savedState.getByteArray(key) : null;
+        if (data == null) {
+            return;
+        }
+
+        try {
+            controller.getModel().setValues(fromByteArray(data));
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring invalid form state", e);
+        }
+    }
+
+    /**
+     * Encodes the values of the specified fields of a model.
+     *
+     * @param model         the model to read the values from
+     * @param fieldNames    the names of the fields to encode
+     * @return              the encoded snapshot
+     */
+    public static byte[] toByteArray(FormModel model, Collection<String> fieldNames) {
+        try {
+            ValueCodec.StringTable strings = new ValueCodec.StringTable();
+            ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+            DataOutputStream entriesOut = new DataOutputStream(entryBytes);
+            int entryCount = 0;
+            for (String name : fieldNames) {
+                Object value = model.getValue(name);
+                if (!ValueCodec.isSupported(value)) {
+                    Log.w(TAG, "Not saving field '" + name + "' with unsupported value type " + value.getClass().getName());
+                    continue;
+                }
+                ValueCodec.writeVarInt(entriesOut, strings.indexOf(name));
+                ValueCodec.writeValue(entriesOut, value, strings);
+                entryCount++;
+            }
+
+            // the string table is only complete once all the entries have been encoded, but is needed first when decoding
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(entryBytes.size() + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            ValueCodec.writeVarInt(out, strings.getStrings().size());
+            for (String string : strings.getStrings()) {
+                byte[] utf8 = string.getBytes(ValueCodec.UTF_8);
+                ValueCodec.writeVarInt(out, utf8.length);
+                out.write(utf8);
+            }
+            ValueCodec.writeVarInt(out, entryCount);
+            entryBytes.writeTo(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);     // can't happen when writing to memory
+        }
+    }
+
+    /**
+     * Decodes a snapshot created by {@link #toByteArray}.
+     *
+     * @param data  the encoded snapshot
+     * @return      a map of field names to their values
+     * @throws IOException if the data is not a valid snapshot, including data that is corrupt or larger than
+     *                     {@link #MAX_BUNDLE_SIZE}
+     */
+    public static Map<String,Object> fromByteArray(byte[] data) throws IOException {
+        if (data.length > MAX_BUNDLE_SIZE) {
+            throw new IOException("Form state of " + data.length + " bytes exceeds " + MAX_BUNDLE_SIZE + " bytes");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported form state version: " + version);
+        }
+
+        int stringCount = ValueCodec.checkLength(in, ValueCodec.readVarInt(in));
+        List<String> strings = new ArrayList<String>(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            byte[] utf8 = new byte[ValueCodec.checkLength(in, ValueCodec.readVarInt(in))];
+            in.readFully(utf8);
+            strings.add(new String(utf8, ValueCodec.UTF_8));
+        }
+
+        int entryCount = ValueCodec.checkLength(in, ValueCodec.readVarInt(in));
+        Map<String,Object> values = new LinkedHashMap<String,Object>();
+        for (int i = 0; i < entryCount; i++) {
+            int nameIndex = ValueCodec.readVarInt(in);
+            if (nameIndex < 0 || nameIndex >= strings.size()) {
+                throw new IOException("Invalid field name reference: " + nameIndex);
+            }
+            values.put(strings.get(nameIndex), ValueCodec.readValue(in, strings));
+        }
+        return values;
+    }
+
+    private static List<String> getFieldNames(FormController controller) {
+        List<String> names = new ArrayList<String>(controller.getNumberOfElements());
+        for (FormSectionController section : controller.getSections()) {
+            for (FormElementController element : section.getElements()) {
+                names.add(element.getName());
+            }
+        }
+        return names;
+    }
+}
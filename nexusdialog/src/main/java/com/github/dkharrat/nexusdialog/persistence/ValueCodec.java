@@ -0,0 +1,223 @@
+package com.github.dkharrat.nexusdialog.persistence;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes and decodes field values in a compact, type-tagged binary format. The supported types are the ones stored by
+ * the built-in form elements: {@code String}, {@code Integer}, {@code Long}, {@code Double}, {@code Boolean},
+ * {@code Date}, and {@code Set}s or {@code List}s of those.
+ * <p/>
+ * Values are decoded from in-memory data, so that every length and count can be checked against the number of remaining
+ * bytes before anything is allocated. Corrupt data therefore fails with an {@code IOException} rather than a
+ * {@code NegativeArraySizeException} or an {@code OutOfMemoryError}.
+ */
+final class ValueCodec {
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INT = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_BOOLEAN = 5;
+    private static final int TAG_DATE = 6;
+    private static final int TAG_SET = 7;
+    private static final int TAG_LIST = 8;
+    private static final int TAG_STRING_REF = 9;
+
+    private ValueCodec() {
+    }
+
+    /**
+     * Indicates whether the specified value can be encoded.
+     *
+     * @param value the value to check
+     * @return      true if the value and all its elements (for collections) are of a supported type
+     */
+    static boolean isSupported(Object value) {
+        if (value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Boolean || value instanceof Date) {
+            return true;
+        }
+        if (value instanceof Set || value instanceof List) {
+            for (Object element : (Collection<?>) value) {
+                if (!isSupported(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static void writeValue(DataOutput out, Object value) throws IOException {
+        writeValue(out, value, null);
+    }
+
+    /**
+     * Writes a type-tagged value. If a string table is specified, strings are written as references to the table, so
+     * that a string that occurs several times is only stored once.
+     */
+    static void writeValue(DataOutput out, Object value, StringTable strings) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            if (strings != null) {
+                out.writeByte(TAG_STRING_REF);
+                writeVarInt(out, strings.indexOf((String) value));
+            } else {
+                out.writeByte(TAG_STRING);
+                writeString(out, (String) value);
+            }
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Set || value instanceof List) {
+            Collection<?> collection = (Collection<?>) value;
+            out.writeByte(value instanceof Set ? TAG_SET : TAG_LIST);
+            out.writeInt(collection.size());
+            for (Object element : collection) {
+                writeValue(out, element, strings);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+        }
+    }
+
+    static Object readValue(DataInputStream in) throws IOException {
+        return readValue(in, null);
+    }
+
+    /**
+     * Reads a type-tagged value, resolving string references against the specified table.
+     */
+    static Object readValue(DataInputStream in, List<String> strings) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:      return null;
+            case TAG_STRING:    return readString(in);
+            case TAG_STRING_REF: {
+                int index = readVarInt(in);
+                if (strings == null || index < 0 || index >= strings.size()) {
+                    throw new IOException("Invalid string reference: " + index);
+                }
+                return strings.get(index);
+            }
+            case TAG_INT:       return in.readInt();
+            case TAG_LONG:      return in.readLong();
+            case TAG_DOUBLE:    return in.readDouble();
+            case TAG_BOOLEAN:   return in.readBoolean();
+            case TAG_DATE:      return new Date(in.readLong());
+            case TAG_SET:
+            case TAG_LIST: {
+                // every element takes at least one byte
+                int size = checkLength(in, in.readInt());
+                Collection<Object> collection = tag == TAG_SET ? new HashSet<Object>() : new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    collection.add(readValue(in, strings));
+                }
+                return collection;
+            }
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 encoding. Unlike {@link DataOutput#writeUTF}, strings
+     * are not limited to 64KB.
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[checkLength(in, in.readInt())];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Checks that a length or count read from the input fits in the remaining bytes of the input.
+     *
+     * @return the length, if it is valid
+     * @throws IOException if the length is negative or larger than the number of remaining bytes
+     */
+    static int checkLength(DataInputStream in, int length) throws IOException {
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length + " with " + in.available() + " bytes remaining");
+        }
+        return length;
+    }
+
+    /**
+     * Writes a non-negative integer using 7 bits per byte, so that small values take a single byte.
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Assigns an index to each distinct string, in the order the strings are first seen.
+     */
+    static final class StringTable {
+        private final Map<String,Integer> indices = new HashMap<String,Integer>();
+        private final List<String> strings = new ArrayList<String>();
+
+        int indexOf(String string) {
+            Integer index = indices.get(string);
+            if (index == null) {
+                index = strings.size();
+                indices.put(string, index);
+                strings.add(string);
+            }
+            return index;
+        }
+
+        List<String> getStrings() {
+            return strings;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.github.dkharrat.nexusdialog.templates;
+
+import android.content.Context;
+import android.text.InputType;
+
+import com.github.dkharrat.nexusdialog.FormController;
+import com.github.dkharrat.nexusdialog.FormElementController;
+import com.github.dkharrat.nexusdialog.controllers.CheckBoxController;
+import com.github.dkharrat.nexusdialog.controllers.DatePickerController;
+import com.github.dkharrat.nexusdialog.controllers.EditTextController;
+import com.github.dkharrat.nexusdialog.controllers.FormSectionController;
+import com.github.dkharrat.nexusdialog.controllers.SelectionController;
+import com.github.dkharrat.nexusdialog.controllers.TimePickerController;
+import com.github.dkharrat.nexusdialog.controllers.ValueController;
+import com.github.dkharrat.nexusdialog.utils.JsonStreamReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A form definition that has been parsed and validated, ready to create the controllers of the form any number of times.
+ * Templates are immutable, so a single instance can be shared between screens and threads (see
+ * {@link FormTemplateCache}).
+ * <p/>
+ * Definitions are JSON objects with a <code>sections</code> array. Each section has an optional <code>name</code> and
+ * <code>title</code>, and an <code>elements</code> array:
+ * <pre>
+ * {
+ *   "sections": [{
+ *     "title": "Personal Info",
+ *     "elements": [
+ *       {"type": "text", "name": "firstName", "label": "First Name", "required": true},
+ *       {"type": "selection", "name": "gender", "label": "Gender", "prompt": "Select", "items": ["Male", "Female"]},
+ *       {"type": "date", "name": "dateOfBirth", "label": "Date of Birth", "format": "MMM d, yyyy"}
+ *     ]
+ *   }]
+ * }
+ * </pre>
+ * The supported element types and their properties, in addition to <code>name</code>, <code>label</code> and
+ * <code>required</code>, are:
+ * <ul>
+ *     <li><code>text</code>: <code>placeholder</code>, <code>inputType</code> (see {@link InputType})</li>
+ *     <li><code>selection</code>: <code>prompt</code>, <code>items</code>, <code>values</code></li>
+ *     <li><code>checkbox</code>: <code>items</code>, <code>values</code></li>
+ *     <li><code>date</code>: <code>format</code></li>
+ *     <li><code>time</code>: <code>format</code>, <code>is24HourView</code></li>
+ *     <li><code>value</code>: no additional properties</li>
+ * </ul>
+ * If <code>values</code> is omitted, the items are used as the values. Unknown properties are ignored, so that
+ * definitions can carry additional data for newer versions of an app.
+ */
+public final class FormTemplate {
+    private static final String DEFAULT_DATE_FORMAT = "MMM d, yyyy";
+    private static final String DEFAULT_TIME_FORMAT = "hh:mm a";
+
+    private enum ElementType {
+        TEXT("text"), SELECTION("selection"), CHECKBOX("checkbox"), DATE("date"), TIME("time"), VALUE("value");
+
+        private final String jsonName;
+
+        ElementType(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        static ElementType fromJsonName(String jsonName) {
+            for (ElementType type : values()) {
+                if (type.jsonName.equals(jsonName)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class SectionTemplate {
+        final String name;
+        final String title;
+        final List<ElementTemplate> elements;
+
+        SectionTemplate(String name, String title, List<ElementTemplate> elements) {
+            this.name = name;
+            this.title = title;
+            this.elements = elements;
+        }
+    }
+
+    private static final class ElementTemplate {
+        ElementType type;
+        String name;
+        String label;
+        boolean required;
+        String placeholder;
+        int inputType = InputType.TYPE_CLASS_TEXT;
+        String prompt;
+        List<String> items;
+        List<Object> values;
+        String format;
+        boolean is24HourView;
+
+        FormElementController createController(Context context) {
+            switch (type) {
+                case TEXT:
+                    return new EditTextController(context, name, label, placeholder, required, inputType);
+                case SELECTION:
+                    return new SelectionController(context, name, label, required, prompt, items, values != null ? values : items);
+                case CHECKBOX:
+                    return new CheckBoxController(context, name, label, required, items, values != null ? values : items);
+                case DATE:
+                    return new DatePickerController(context, name, label, required, new SimpleDateFormat(format, Locale.getDefault()));
+                case TIME:
+                    return new TimePickerController(context, name, label, required,
+                            new SimpleDateFormat(format, Locale.getDefault()), is24HourView);
+                default:
+                    return new ValueController(context, name, label);
+            }
+        }
+    }
+
+    private final List<SectionTemplate> sections;
+    private final int elementCount;
+
+    private FormTemplate(List<SectionTemplate> sections, int elementCount) {
+        this.sections = sections;
+        this.elementCount = elementCount;
+    }
+
+    /**
+     * Parses a form definition.
+     *
+     * @param definition    the JSON form definition
+     * @return              the parsed template
+     * @throws IOException  if the definition is malformed or invalid, e.g. if it contains duplicate element names
+     */
+    public static FormTemplate parse(String definition) throws IOException {
+        return parse(new StringReader(definition));
+    }
+
+    /**
+     * Parses a form definition from a stream. The stream is not closed.
+     *
+     * @param in            the stream to read the JSON form definition from
+     * @return              the parsed template
+     * @throws IOException  if the stream can't be read, or if the definition is malformed or invalid, e.g. if it
+     *                      contains duplicate element names
+     */
+    public static FormTemplate parse(Reader in) throws IOException {
+        JsonStreamReader reader = new JsonStreamReader(in);
+        List<SectionTemplate> sections = new ArrayList<SectionTemplate>();
+        Set<String> names = new HashSet<String>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("sections")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    sections.add(readSection(reader, names));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (reader.peek() != JsonStreamReader.Token.END_DOCUMENT) {
+            throw new IOException("Unexpected data after the form definition");
+        }
+
+        int elementCount = 0;
+        for (SectionTemplate section : sections) {
+            elementCount += section.elements.size();
+        }
+        return new FormTemplate(Collections.unmodifiableList(sections), elementCount);
+    }
+
+    private static SectionTemplate readSection(JsonStreamReader reader, Set<String> names) throws IOException {
+        String name = null;
+        String title = null;
+        List<ElementTemplate> elements = new ArrayList<ElementTemplate>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String property = reader.nextName();
+            if (property.equals("name")) {
+                name = readString(reader);
+            } else if (property.equals("title")) {
+                title = readString(reader);
+            } else if (property.equals("elements")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    elements.add(readElement(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (name != null && !names.add(name)) {
+            throw new IOException("Duplicate section name '" + name + "'");
+        }
+        for (ElementTemplate element : elements) {
+            if (!names.add(element.name)) {
+                throw new IOException("Duplicate element name '" + element.name + "'");
+            }
+        }
+        return new SectionTemplate(name, title, Collections.unmodifiableList(elements));
+    }
+
+    private static ElementTemplate readElement(JsonStreamReader reader) throws IOException {
+        ElementTemplate element = new ElementTemplate();
+        String type = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String property = reader.nextName();
+            if (property.equals("type")) {
+                type = readString(reader);
+            } else if (property.equals("name")) {
+                element.name = readString(reader);
+            } else if (property.equals("label")) {
+                element.label = readString(reader);
+            } else if (property.equals("required")) {
+                element.required = reader.nextBoolean();
+            } else if (property.equals("placeholder")) {
+                element.placeholder = readString(reader);
+            } else if (property.equals("inputType")) {
+                element.inputType = reader.nextInt();
+            } else if (property.equals("prompt")) {
+                element.prompt = readString(reader);
+            } else if (property.equals("items")) {
+                element.items = readItems(reader);
+            } else if (property.equals("values")) {
+                element.values = readValues(reader);
+            } else if (property.equals("format")) {
+                element.format = readString(reader);
+            } else if (property.equals("is24HourView")) {
+                element.is24HourView = reader.nextBoolean();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        element.type = ElementType.fromJsonName(type);
+        if (element.type == null) {
+            throw new IOException("Unknown element type '" + type + "'");
+        }
+        if (element.name == null || element.name.isEmpty()) {
+            throw new IOException("Missing name for element of type '" + type + "'");
+        }
+        validateElement(element);
+        return element;
+    }
+
+    private static void validateElement(ElementTemplate element) throws IOException {
+        switch (element.type) {
+            case SELECTION:
+            case CHECKBOX:
+                if (element.items == null || element.items.isEmpty()) {
+                    throw new IOException("Element '" + element.name + "' has no items");
+                }
+                if (element.values != null && element.values.size() != element.items.size()) {
+                    throw new IOException("Element '" + element.name + "' must have as many values as items");
+                }
+                break;
+            case DATE:
+            case TIME:
+                if (element.format == null) {
+                    element.format = element.type == ElementType.DATE ? DEFAULT_DATE_FORMAT : DEFAULT_TIME_FORMAT;
+                }
+                try {
+                    new SimpleDateFormat(element.format, Locale.getDefault());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Element '" + element.name + "' has an invalid format: " + element.format);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String readString(JsonStreamReader reader) throws IOException {
+        if (reader.peek() == JsonStreamReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static List<String> readItems(JsonStreamReader reader) throws IOException {
+        List<String> items = new ArrayList<String>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            items.add(reader.nextString());
+        }
+        reader.endArray();
+        return Collections.unmodifiableList(items);
+    }
+
+    private static List<Object> readValues(JsonStreamReader reader) throws IOException {
+        List<Object> values = new ArrayList<Object>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            switch (reader.peek()) {
+                case NUMBER:
+                    values.add(parseNumber(reader.nextString()));
+                    break;
+                case BOOLEAN:
+                    values.add(reader.nextBoolean());
+                    break;
+                default:
+                    values.add(reader.nextString());
+                    break;
+            }
+        }
+        reader.endArray();
+        return Collections.unmodifiableList(values);
+    }
+
+    private static Number parseNumber(String literal) throws IOException {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            try {
+                long value = Long.parseLong(literal);
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                // too large for a long, so read it as a double
+            }
+        }
+        try {
+            return Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number '" + literal + "'");
+        }
+    }
+
+    /**
+     * Returns the number of elements of this template, not including sections.
+     *
+     * @return the number of elements of this template
+     */
+    public int getNumberOfElements() {
+        return elementCount;
+    }
+
+    /**
+     * Creates the sections and elements of this template, and adds them to the specified form. Each call creates new
+     * controllers, so the same template can be used for any number of forms.
+     *
+     * @param context       the Android context of the form
+     * @param controller    the form to add the sections to
+     * @throws IllegalArgumentException if the form already contains an element with the same name as one of this
+     *                                  template's elements
+     */
+    public void instantiate(Context context, FormController controller) {
+        for (SectionTemplate section : sections) {
+            FormSectionController sectionController;
+            if (section.name != null) {
+                sectionController = new FormSectionController(context, section.name, section.title);
+            } else {
+                sectionController = new FormSectionController(context, section.title);
+            }
+            for (ElementTemplate element : section.elements) {
+                sectionController.addElement(element.createController(context));
+            }
+            controller.addSection(sectionController);
+        }
+    }
+}
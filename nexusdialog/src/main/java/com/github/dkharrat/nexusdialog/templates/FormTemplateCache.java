@@ -0,0 +1,157 @@
+package com.github.dkharrat.nexusdialog.templates;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches parsed {@link FormTemplate}s, so that opening the same form again only needs to create its controllers. Templates
+ * are keyed by the SHA-1 hash of their definition, which means that a definition received again from a server hits the
+ * cache as long as its content is the same, and that a changed definition is never served from a stale entry.
+ * <p/>
+ * The cache holds at most a fixed number of templates, evicting the least recently used ones. It is safe to use from
+ * multiple threads, e.g. to parse definitions in the background as soon as they are downloaded.
+ * <pre>
+ *     FormTemplate template = templateCache.get(definition);
+ *     template.instantiate(context, formController);
+ * </pre>
+ */
+public final class FormTemplateCache {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Map<String,FormTemplate> templates;
+    private int hitCount;
+    private int missCount;
+
+    /**
+     * Creates a cache holding at most the specified number of templates.
+     *
+     * @param maxSize   the maximum number of templates to keep
+     */
+    public FormTemplateCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        templates = new LinkedHashMap<String,FormTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,FormTemplate> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the template of the specified definition, parsing it only if it isn't cached yet.
+     *
+     * @param definition    the JSON form definition
+     * @return              the parsed template
+     * @throws IOException  if the definition is malformed or invalid
+     */
+    public FormTemplate get(String definition) throws IOException {
+        return get(definition.getBytes(UTF_8));
+    }
+
+    /**
+     * Returns the template of the specified definition, parsing it only if it isn't cached yet. The definition is read
+     * entirely to compute its hash, and the stream is not closed.
+     *
+     * @param in            the stream to read the JSON form definition from, encoded in UTF-8
+     * @return              the parsed template
+     * @throws IOException  if the stream can't be read, or if the definition is malformed or invalid
+     */
+    public FormTemplate get(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return get(out.toByteArray());
+    }
+
+    /**
+     * Returns the template of the specified definition, parsing it only if it isn't cached yet.
+     *
+     * @param definition    the JSON form definition, encoded in UTF-8
+     * @return              the parsed template
+     * @throws IOException  if the definition is malformed or invalid
+     */
+    public FormTemplate get(byte[] definition) throws IOException {
+        String key = hash(definition);
+        synchronized (this) {
+            FormTemplate template = templates.get(key);
+            if (template != null) {
+                hitCount++;
+                return template;
+            }
+            missCount++;
+        }
+
+        // parsed outside the lock, so that a large definition doesn't block lookups of other templates. If two threads
+        // parse the same definition concurrently, the results are equivalent and either one may end up cached.
+        FormTemplate template = FormTemplate.parse(new InputStreamReader(new ByteArrayInputStream(definition), UTF_8));
+        synchronized (this) {
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the number of templates currently cached.
+     *
+     * @return the number of templates currently cached
+     */
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    /**
+     * Returns the number of lookups that returned a cached template.
+     *
+     * @return the number of lookups that returned a cached template
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that required parsing the definition.
+     *
+     * @return the number of lookups that required parsing the definition
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Removes all templates from this cache.
+     */
+    public synchronized void clear() {
+        templates.clear();
+    }
+
+    private static String hash(byte[] definition) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(definition);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java and Android platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,433 @@
+package com.github.dkharrat.nexusdialog.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads a JSON document from a stream, one token at a time, without building it in memory first. Unlike
+ * {@code android.util.JsonReader}, it is available on all API levels.
+ * <pre>
+ *     reader.beginObject();
+ *     while (reader.hasNext()) {
+ *         String name = reader.nextName();
+ *         if (reader.peek() == JsonStreamReader.Token.STRING) {
+ *             String value = reader.nextString();
+ *         } else {
+ *             reader.skipValue();
+ *         }
+ *     }
+ *     reader.endObject();
+ * </pre>
+ * Malformed documents, and values that are not of the requested type (such as a string where a number is expected),
+ * are reported as {@code IOException}s.
+ */
+public class JsonStreamReader implements Closeable {
+    /**
+     * The kinds of tokens of a JSON document.
+     */
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 1;
+    private static final int NONEMPTY_DOCUMENT = 2;
+    private static final int EMPTY_ARRAY = 3;
+    private static final int NONEMPTY_ARRAY = 4;
+    private static final int EMPTY_OBJECT = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+    private static final int DANGLING_NAME = 7;
+
+    private final Reader in;
+    private final char[] buffer = new char[1024];
+    private int pos = 0;
+    private int limit = 0;
+    // the number of characters read before the ones currently in the buffer, used in error messages
+    private int bufferOffset = 0;
+
+    private int[] stack = new int[8];
+    private int stackSize = 0;
+    private Token peeked;
+
+    /**
+     * Creates a reader that reads from the specified stream.
+     *
+     * @param in    the stream to read the JSON document from
+     */
+    public JsonStreamReader(Reader in) {
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Returns the kind of the next token, without consuming it.
+     */
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Indicates whether the current array or object has another element.
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Returns the next string value. If the next token is a number, its literal is returned instead.
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.NUMBER) {
+            peeked = null;
+            return readLiteral();
+        }
+        expect(Token.STRING);
+        return readString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String literal = readLiteral();
+        if (literal.equals("true")) {
+            return true;
+        } else if (literal.equals("false")) {
+            return false;
+        }
+        throw syntaxError("Invalid literal '" + literal + "'");
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        String literal = readLiteral();
+        if (!literal.equals("null")) {
+            throw syntaxError("Invalid literal '" + literal + "'");
+        }
+    }
+
+    /**
+     * Returns the next number as a {@code long}.
+     *
+     * @throws IOException if the next value is not a number, or is not an integer that fits in a {@code long}
+     */
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        String literal = readLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            // accept integral numbers written with a fraction or exponent, such as 1.0 or 1e3
+            double value = parseDouble(literal);
+            if (value != (long) value) {
+                throw syntaxError("Expected an integer but was " + literal);
+            }
+            return (long) value;
+        }
+    }
+
+    /**
+     * Returns the next number as an {@code int}.
+     *
+     * @throws IOException if the next value is not a number, or is not an integer that fits in an {@code int}
+     */
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Returns the next number as a {@code double}.
+     *
+     * @throws IOException if the next value is not a number
+     */
+    public double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        return parseDouble(readLiteral());
+    }
+
+    /**
+     * Skips the next value, including all the nested values of an array or object.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:   beginArray(); depth++; break;
+                case BEGIN_OBJECT:  beginObject(); depth++; break;
+                case END_ARRAY:     endArray(); depth--; break;
+                case END_OBJECT:    endObject(); depth--; break;
+                case NAME:          nextName(); break;
+                case STRING:        nextString(); break;
+                case END_DOCUMENT:  throw syntaxError("Unexpected end of document");
+                default:            peeked = null; readLiteral(); break;
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private double parseDouble(String literal) throws IOException {
+        try {
+            return Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number '" + literal + "'");
+        }
+    }
+
+    private Token doPeek() throws IOException {
+        int context = stack[stackSize - 1];
+        switch (context) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    return Token.END_ARRAY;
+                }
+                pos--;
+                break;
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Unterminated array");
+                }
+                break;
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = nextNonWhitespace();
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                if (context == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Unterminated object");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return Token.NAME;
+            }
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                break;
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                if (skipWhitespace()) {
+                    throw syntaxError("Expected a single top-level value");
+                }
+                return Token.END_DOCUMENT;
+        }
+
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':   return Token.BEGIN_OBJECT;
+            case '[':   return Token.BEGIN_ARRAY;
+            case '"':   return Token.STRING;
+            case 't':
+            case 'f':   pos--; return Token.BOOLEAN;
+            case 'n':   pos--; return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Skips whitespace, and indicates whether there is more input.
+     */
+    private boolean skipWhitespace() throws IOException {
+        while (pos < limit || fillBuffer()) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        if (!skipWhitespace()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fillBuffer() throws IOException {
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Reads a string up to its closing quote. The opening quote must have been consumed.
+     */
+    private String readString() throws IOException {
+        StringBuilder builder = null;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    if (builder == null) {
+                        // common case: the whole string is in the buffer and has no escapes
+                        return new String(buffer, start, pos - start - 1);
+                    }
+                    builder.append(buffer, start, pos - start - 1);
+                    return builder.toString();
+                } else if (c == '\\') {
+                    if (builder == null) {
+                        builder = new StringBuilder();
+                    }
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscapedCharacter());
+                    start = pos;
+                }
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(buffer, start, pos - start);
+            if (!fillBuffer()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscapedCharacter() throws IOException {
+        char c = nextChar();
+        switch (c) {
+            case 'b':   return '\b';
+            case 'f':   return '\f';
+            case 'n':   return '\n';
+            case 'r':   return '\r';
+            case 't':   return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default:    return c;       // '"', '\\' and '/'
+        }
+    }
+
+    private char nextChar() throws IOException {
+        if (pos == limit && !fillBuffer()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * Reads an unquoted literal, such as a number, {@code true}, {@code false} or {@code null}.
+     */
+    private String readLiteral() throws IOException {
+        StringBuilder builder = null;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == ',' || c == ']' || c == '}' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    if (builder == null) {
+                        return new String(buffer, start, pos - start);
+                    }
+                    builder.append(buffer, start, pos - start);
+                    return builder.toString();
+                }
+                pos++;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(buffer, start, pos - start);
+            if (!fillBuffer()) {
+                return builder.toString();
+            }
+        }
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = context;
+    }
+
+    private int position() {
+        return bufferOffset + pos;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at character " + position());
+    }
+}
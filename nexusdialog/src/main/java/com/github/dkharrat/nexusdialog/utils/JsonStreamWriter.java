@@ -0,0 +1,214 @@
+package com.github.dkharrat.nexusdialog.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes a JSON document to a stream, one token at a time, without building it in memory first. Unlike
+ * {@code android.util.JsonWriter}, it is available on all API levels.
+ * <pre>
+ *     writer.beginObject();
+ *     writer.name("name").value("John");
+ *     writer.name("hobbies").beginArray().value("Chess").value("Hiking").endArray();
+ *     writer.endObject();
+ * </pre>
+ * Only the nesting of arrays and objects is checked; it is up to the caller to alternate names and values in objects.
+ */
+public class JsonStreamWriter implements Closeable, Flushable {
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int NAME_WRITTEN = 5;
+
+    private final Writer out;
+    private int[] stack = new int[8];
+    private int stackSize = 0;
+
+    /**
+     * Creates a writer that writes to the specified stream. For best performance, the stream should be buffered.
+     *
+     * @param out   the stream to write the JSON document to
+     */
+    public JsonStreamWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonStreamWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        out.write('{');
+        return this;
+    }
+
+    public JsonStreamWriter endObject() throws IOException {
+        pop(EMPTY_OBJECT, NONEMPTY_OBJECT);
+        out.write('}');
+        return this;
+    }
+
+    public JsonStreamWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    public JsonStreamWriter endArray() throws IOException {
+        pop(EMPTY_ARRAY, NONEMPTY_ARRAY);
+        out.write(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next property of the current object.
+     *
+     * @param name  the name of the property
+     * @return      this writer
+     */
+    public JsonStreamWriter name(String name) throws IOException {
+        int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            out.write(',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Names can only be written in objects");
+        }
+        stack[stackSize - 1] = NAME_WRITTEN;
+        writeString(name);
+        out.write(':');
+        return this;
+    }
+
+    public JsonStreamWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonStreamWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a number. JSON cannot represent NaN or infinite values.
+     *
+     * @throws IllegalArgumentException if the value is NaN or infinite
+     */
+    public JsonStreamWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        beforeValue();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    public JsonStreamWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonStreamWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void beforeValue() throws IOException {
+        if (stackSize == 0) {
+            return;
+        }
+
+        switch (stack[stackSize - 1]) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                out.write(',');
+                break;
+            case NAME_WRITTEN:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            default:
+                throw new IllegalStateException("A name must be written before a value in an object");
+        }
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = context;
+    }
+
+    private void pop(int emptyContext, int nonEmptyContext) {
+        int context = peek();
+        if (context != emptyContext && context != nonEmptyContext) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        stackSize--;
+    }
+
+    private int peek() {
+        if (stackSize == 0) {
+            throw new IllegalStateException("Not inside an array or object");
+        }
+        return stack[stackSize - 1];
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            } else if (c == '\r') {
+                replacement = "\\r";
+            } else if (c == '\t') {
+                replacement = "\\t";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                String hex = Integer.toHexString(c);
+                replacement = "\\u0000".substring(0, 6 - hex.length()) + hex;
+            } else {
+                continue;
+            }
+
+            // write unescaped characters in chunks rather than one by one
+            if (start < i) {
+                out.write(value, start, i - start);
+            }
+            out.write(replacement);
+            start = i + 1;
+        }
+        if (start < length) {
+            out.write(value, start, length - start);
+        }
+        out.write('"');
+    }
+}
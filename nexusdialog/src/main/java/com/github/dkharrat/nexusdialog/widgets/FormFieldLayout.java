@@ -0,0 +1,243 @@
+package com.github.dkharrat.nexusdialog.widgets;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.github.dkharrat.nexusdialog.R;
+
+/**
+ * The layout of a labeled form field: a label on the left, and the field with an optional error message below it on the
+ * right. The label is the child with the ID <code>field_label</code>, and its width is taken from its layout parameters.
+ * The field takes the remaining width. The error message is only created the first time an error is shown.
+ * <p/>
+ * Unlike the equivalent hierarchy of nested <code>LinearLayout</code>s and a <code>FrameLayout</code>, all children are
+ * measured and laid out in a single pass, and both columns are centered vertically. Children may have margins, and the
+ * label is on the right in right-to-left layouts (on API 17+).
+ */
+public class FormFieldLayout extends ViewGroup {
+    private static final int ERROR_TEXT_COLOR = 0xffcc0000;
+
+    private TextView labelView;
+    private View fieldView;
+    private TextView errorView;
+
+    public FormFieldLayout(Context context) {
+        super(context);
+    }
+
+    public FormFieldLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        labelView = (TextView) findViewById(R.id.field_label);
+    }
+
+    /**
+     * Sets the text of the label.
+     *
+     * @param label the text of the label, or null to hide the label and let the field occupy the entire width
+     */
+    public void setLabel(CharSequence label) {
+        if (labelView == null) {
+            return;
+        }
+        if (label == null) {
+            labelView.setVisibility(View.GONE);
+        } else {
+            labelView.setText(label);
+            labelView.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * Returns the view of the field.
+     *
+     * @return the view of the field, or null if none is set
+     */
+    public View getFieldView() {
+        return fieldView;
+    }
+
+    /**
+     * Sets the view of the field, replacing the current one.
+     *
+     * @param view  the view of the field, or null to remove the current one
+     */
+    public void setFieldView(View view) {
+        if (fieldView == view) {
+            return;
+        }
+        if (fieldView != null) {
+            removeView(fieldView);
+        }
+        fieldView = view;
+        if (view != null) {
+            if (view.getParent() != null) {
+                ((ViewGroup) view.getParent()).removeView(view);
+            }
+            addView(view);
+        }
+    }
+
+    /**
+     * Shows an error message below the field.
+     *
+     * @param message   the message to show, or null to hide the current message
+     */
+    public void setError(CharSequence message) {
+        if (message == null) {
+            if (errorView != null) {
+                errorView.setVisibility(View.GONE);
+            }
+            return;
+        }
+
+        if (errorView == null) {
+            errorView = new TextView(getContext());
+            errorView.setId(R.id.field_error);
+            errorView.setTextColor(ERROR_TEXT_COLOR);
+            addView(errorView);
+        }
+        errorView.setText(message);
+        errorView.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int horizontalPadding = getPaddingLeft() + getPaddingRight();
+        int verticalPadding = getPaddingTop() + getPaddingBottom();
+        int contentWidth = Math.max(0, MeasureSpec.getSize(widthMeasureSpec) - horizontalPadding);
+        int contentWidthSpec = MeasureSpec.makeMeasureSpec(contentWidth, MeasureSpec.getMode(widthMeasureSpec));
+
+        int labelWidth = 0;
+        int labelHeight = 0;
+        if (isVisible(labelView)) {
+            measureChildView(labelView, contentWidthSpec, heightMeasureSpec, verticalPadding);
+            labelWidth = getWidthWithMargins(labelView);
+            labelHeight = getHeightWithMargins(labelView);
+        }
+
+        // the field and the error message share the width that remains next to the label
+        int columnWidthSpec = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED)
+                : MeasureSpec.makeMeasureSpec(Math.max(0, contentWidth - labelWidth), MeasureSpec.EXACTLY);
+        int columnHeight = 0;
+        int columnWidth = 0;
+        if (isVisible(fieldView)) {
+            measureChildView(fieldView, columnWidthSpec, heightMeasureSpec, verticalPadding);
+            columnHeight += getHeightWithMargins(fieldView);
+            columnWidth = getWidthWithMargins(fieldView);
+        }
+        if (isVisible(errorView)) {
+            measureChildView(errorView, columnWidthSpec, heightMeasureSpec, verticalPadding + columnHeight);
+            columnHeight += getHeightWithMargins(errorView);
+            columnWidth = Math.max(columnWidth, getWidthWithMargins(errorView));
+        }
+
+        int width = Math.max(labelWidth + columnWidth + horizontalPadding, getSuggestedMinimumWidth());
+        int height = Math.max(Math.max(labelHeight, columnHeight) + verticalPadding, getSuggestedMinimumHeight());
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    private void measureChildView(View child, int parentWidthSpec, int parentHeightSpec, int heightUsed) {
+        MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        int childWidthSpec = getChildMeasureSpec(parentWidthSpec, lp.leftMargin + lp.rightMargin, lp.width);
+        int childHeightSpec = getChildMeasureSpec(parentHeightSpec, heightUsed + lp.topMargin + lp.bottomMargin, lp.height);
+        child.measure(childWidthSpec, childHeightSpec);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        boolean rtl = isLayoutRtl();
+        int width = right - left;
+        int contentTop = getPaddingTop();
+        int contentHeight = bottom - top - getPaddingTop() - getPaddingBottom();
+        // the distance from the start of the content, which is its right edge in right-to-left layouts
+        int start = 0;
+
+        if (isVisible(labelView)) {
+            MarginLayoutParams lp = (MarginLayoutParams) labelView.getLayoutParams();
+            int labelTop = contentTop + (contentHeight - getHeightWithMargins(labelView)) / 2 + lp.topMargin;
+            layoutChildView(labelView, start + (rtl ? lp.rightMargin : lp.leftMargin), labelTop, width, rtl);
+            start += getWidthWithMargins(labelView);
+        }
+
+        int columnHeight = (isVisible(fieldView) ? getHeightWithMargins(fieldView) : 0)
+                + (isVisible(errorView) ? getHeightWithMargins(errorView) : 0);
+        int y = contentTop + (contentHeight - columnHeight) / 2;
+        if (isVisible(fieldView)) {
+            MarginLayoutParams lp = (MarginLayoutParams) fieldView.getLayoutParams();
+            layoutChildView(fieldView, start + (rtl ? lp.rightMargin : lp.leftMargin), y + lp.topMargin, width, rtl);
+            y += getHeightWithMargins(fieldView);
+        }
+        if (isVisible(errorView)) {
+            MarginLayoutParams lp = (MarginLayoutParams) errorView.getLayoutParams();
+            layoutChildView(errorView, start + (rtl ? lp.rightMargin : lp.leftMargin), y + lp.topMargin, width, rtl);
+        }
+    }
+
+    /**
+     * Lays out a child at its measured size.
+     *
+     * @param child the child to lay out
+     * @param start the distance of the child's start edge from the start of the content
+     * @param top   the top edge of the child
+     * @param width the width of this layout
+     * @param rtl   whether this layout is right-to-left
+     */
+    private void layoutChildView(View child, int start, int top, int width, boolean rtl) {
+        int childWidth = child.getMeasuredWidth();
+        int childLeft = rtl ? width - getPaddingRight() - start - childWidth : getPaddingLeft() + start;
+        child.layout(childLeft, top, childLeft + childWidth, top + child.getMeasuredHeight());
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private boolean isLayoutRtl() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+    }
+
+    private static int getWidthWithMargins(View child) {
+        MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        return child.getMeasuredWidth() + lp.leftMargin + lp.rightMargin;
+    }
+
+    private static int getHeightWithMargins(View child) {
+        MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        return child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin;
+    }
+
+    private static boolean isVisible(View child) {
+        return child != null && child.getVisibility() != View.GONE;
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(LayoutParams p) {
+        if (p instanceof MarginLayoutParams) {
+            return new MarginLayoutParams((MarginLayoutParams) p);
+        }
+        return new MarginLayoutParams(p);
+    }
+
+    @Override
+    protected boolean checkLayoutParams(LayoutParams p) {
+        return p instanceof MarginLayoutParams;
+    }
+}